@@ -0,0 +1,126 @@
+package com.example.tamagotchiproject;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.tamagotchiproject.repository.GameRepository;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+// Время запуска GameActivity по моментам, которые отмечает сама активность: первый кадр
+// и первый кадр с загруженной игрой (reportFullyDrawn). Сравниваются два пути:
+//  - фоновый: как в приложении, экран рисуется сразу, игра загружается в фоне;
+//  - базовый: загрузка выполняется на главном потоке до первого кадра, как было раньше.
+// Перед каждым запуском репозиторий забывается (releaseInstance), поэтому оба пути заново читают
+// хранилище, журнал и историю с диска и проигрывают журнал, как при холодном старте процесса
+// (страничный кэш ОС при этом остаётся тёплым). Запуски двух путей чередуются. Медиана
+// и 95-й процентиль в миллисекундах пишутся в logcat с тегом GameActivityStartupBenchmark;
+// цифры снимаются на устройстве
+@RunWith(AndroidJUnit4.class)
+public class GameActivityStartupBenchmark {
+    private static final String TAG = "GameActivityStartupBenchmark";
+    private static final int ROUNDS = 20;
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @Test
+    public void timeToFirstFrame() throws Exception {
+        long[][] background = new long[2][ROUNDS];
+        long[][] mainThread = new long[2][ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            measure(false, background, i);
+            measure(true, mainThread, i);
+        }
+
+        report("фоновая загрузка", background);
+        report("загрузка на главном потоке", mainThread);
+    }
+
+    private static void measure(boolean loadOnMainThread, long[][] times, int round) throws Exception {
+        Application application = (Application) InstrumentationRegistry.getInstrumentation()
+                .getTargetContext().getApplicationContext();
+        Application.ActivityLifecycleCallbacks mainThreadLoad = new SyncLoadCallbacks();
+        if (loadOnMainThread) {
+            application.registerActivityLifecycleCallbacks(mainThreadLoad);
+        }
+
+        GameRepository.releaseInstance();
+
+        final long[] drawn = new long[2];
+        long started = System.nanoTime();
+        ActivityScenario<GameActivity> scenario = ActivityScenario.launch(GameActivity.class);
+        long deadline = SystemClock.uptimeMillis() + TIMEOUT_MILLIS;
+        while (drawn[1] == 0 && SystemClock.uptimeMillis() < deadline) {
+            scenario.onActivity(new ActivityScenario.ActivityAction<GameActivity>() {
+                @Override
+                public void perform(GameActivity activity) {
+                    drawn[0] = activity.getFirstFrameAt();
+                    drawn[1] = activity.getFullyDrawnAt();
+                }
+            });
+            if (drawn[1] == 0) {
+                Thread.sleep(5);
+            }
+        }
+        scenario.close();
+        application.unregisterActivityLifecycleCallbacks(mainThreadLoad);
+
+        assertTrue("игра не нарисована за " + TIMEOUT_MILLIS + " мс", drawn[1] != 0);
+        times[0][round] = drawn[0] - started;
+        times[1][round] = drawn[1] - started;
+    }
+
+    private static void report(String path, long[][] times) {
+        Arrays.sort(times[0]);
+        Arrays.sort(times[1]);
+        Log.i(TAG, path + ": первый кадр p50=" + times[0][ROUNDS / 2] / 1_000_000
+                + " мс, p95=" + times[0][ROUNDS * 95 / 100] / 1_000_000
+                + " мс; игра на экране p50=" + times[1][ROUNDS / 2] / 1_000_000
+                + " мс, p95=" + times[1][ROUNDS * 95 / 100] / 1_000_000 + " мс");
+    }
+
+    // Базовый путь: то же холодное чтение сохранения, но в onCreate на главном потоке, до первого кадра
+    private static class SyncLoadCallbacks implements Application.ActivityLifecycleCallbacks {
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            if (activity instanceof GameActivity) {
+                GameRepository.getInstance(activity).loadGameState(false);
+            }
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.tamagotchiproject.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.tamagotchiproject.engine.PackedStats;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+// Сравнение задержек сохранения и загрузки: GameStore против прежнего пути через SharedPreferences.
+// Результаты (медиана и 95-й процентиль в микросекундах) пишутся в logcat с тегом GameStoreBenchmark
+@RunWith(AndroidJUnit4.class)
+public class GameStoreBenchmark {
+    private static final String TAG = "GameStoreBenchmark";
+    private static final int ROUNDS = 200;
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+    @Test
+    public void save() throws Exception {
+        SharedPreferences prefs = context.getSharedPreferences("bench_prefs", Context.MODE_PRIVATE);
+        long[] prefsCommit = new long[ROUNDS];
+        long[] prefsApply = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            fillPrefs(prefs.edit(), i).commit();
+            prefsCommit[i] = System.nanoTime() - started;
+
+            started = System.nanoTime();
+            fillPrefs(prefs.edit(), i).apply();
+            prefsApply[i] = System.nanoTime() - started;
+        }
+
+        long[] storeNone = measureStoreSaves(GameStore.SYNC_NONE);
+        long[] storeData = measureStoreSaves(GameStore.SYNC_DATA);
+
+        report("save prefs commit", prefsCommit);
+        report("save prefs apply (caller only)", prefsApply);
+        report("save store SYNC_NONE", storeNone);
+        report("save store SYNC_DATA", storeData);
+
+        prefs.edit().clear().commit();
+    }
+
+    @Test
+    public void load() throws Exception {
+        SharedPreferences source = context.getSharedPreferences("bench_source", Context.MODE_PRIVATE);
+        fillPrefs(source.edit(), 1).commit();
+        File sourceXml = new File(context.getDataDir(), "shared_prefs/bench_source.xml");
+
+        // SharedPreferences кэшируются на процесс, поэтому каждый раунд читает свою копию файла
+        long[] prefsLoad = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            String name = "bench_load_" + i;
+            copy(sourceXml, new File(context.getDataDir(), "shared_prefs/" + name + ".xml"));
+            long started = System.nanoTime();
+            SharedPreferences prefs = context.getSharedPreferences(name, Context.MODE_PRIVATE);
+            prefs.getLong("elapsed_time", 0);
+            prefsLoad[i] = System.nanoTime() - started;
+            context.deleteSharedPreferences(name);
+        }
+
+        File file = new File(context.getCacheDir(), "bench.store");
+        GameStore written = new GameStore(file, GameStore.SYNC_NONE);
+        fillStore(written, 1);
+        written.save();
+        long[] storeLoad = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            GameStore store = new GameStore(file, GameStore.SYNC_NONE);
+            assertTrue(store.load());
+            storeLoad[i] = System.nanoTime() - started;
+        }
+
+        report("load prefs", prefsLoad);
+        report("load store", storeLoad);
+
+        context.deleteSharedPreferences("bench_source");
+        file.delete();
+    }
+
+    private long[] measureStoreSaves(int syncPolicy) throws IOException {
+        File file = new File(context.getCacheDir(), "bench.store");
+        GameStore store = new GameStore(file, syncPolicy);
+        long[] times = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long started = System.nanoTime();
+            fillStore(store, i);
+            store.save();
+            times[i] = System.nanoTime() - started;
+        }
+        file.delete();
+        return times;
+    }
+
+    private static SharedPreferences.Editor fillPrefs(SharedPreferences.Editor editor, int round) {
+        return editor.putInt("hunger", round % 101)
+                .putInt("happiness", 80)
+                .putInt("cleanliness", 70)
+                .putInt("energy", 60)
+                .putLong("elapsed_time", round * 1000L)
+                .putLong("saved_at", System.currentTimeMillis())
+                .putLong("rng_seed", round)
+                .putInt("game_speed", 0)
+                .putBoolean("was_game_over", false)
+                .putString("pet_name", "Панда")
+                .putInt("character", 1)
+                .putLong("best_time_0", 600_000)
+                .putLong("best_time_1", 90_000);
+    }
+
+    private static void fillStore(GameStore store, int round) {
+        store.setStats(PackedStats.pack(round % 101, 80, 70, 60));
+        store.setElapsedTime(round * 1000L);
+        store.setSavedAt(System.currentTimeMillis());
+        store.setRngSeed(round);
+        store.setGameSpeed(0);
+        store.setGameOver(false);
+        store.setPetName("Панда");
+        store.setCharacter(1);
+        store.setBestTime(0, 600_000);
+        store.setBestTime(1, 90_000);
+    }
+
+    private static void report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        Log.i(TAG, label + ": p50=" + sorted[sorted.length / 2] / 1000 + " мкс, p95="
+                + sorted[sorted.length * 95 / 100] / 1000 + " мкс");
+    }
+
+    private static void copy(File from, File to) throws IOException {
+        try (FileInputStream in = new FileInputStream(from); FileOutputStream out = new FileOutputStream(to)) {
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                out.write(chunk, 0, read);
+            }
+        }
+    }
+}
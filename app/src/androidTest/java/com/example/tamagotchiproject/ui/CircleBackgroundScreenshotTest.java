@@ -0,0 +1,129 @@
+package com.example.tamagotchiproject.ui;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.util.Log;
+
+import androidx.core.content.ContextCompat;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.tamagotchiproject.R;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.*;
+
+// Сравнение нарисованного круга с прежними PNG. Эталоны в assets/circles - исходные круги,
+// уменьшенные до 128x128 с обрезкой centerCrop, как их показывал petBackground. Розовый PNG был
+// экспортирован со свечением, сдвинутым вправо, и сравнивается с формой SHAPE_PINK
+@RunWith(AndroidJUnit4.class)
+public class CircleBackgroundScreenshotTest {
+    private static final String TAG = "CircleBackgroundScreenshotTest";
+    private static final int SIZE = 128;
+    // Допуски по каналам с учётом прозрачности, из 255
+    private static final double MAX_MEAN_ERROR = 4;
+    private static final int MAX_PIXEL_ERROR = 16;
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    private final Context testContext = InstrumentationRegistry.getInstrumentation().getContext();
+
+    @Test
+    public void greenMatchesPng() throws IOException {
+        assertMatches(R.color.circle_green, CircleBackgroundDrawable.SHAPE_DEFAULT, "circles/circle_green.png");
+    }
+
+    @Test
+    public void redMatchesPng() throws IOException {
+        assertMatches(R.color.circle_red, CircleBackgroundDrawable.SHAPE_DEFAULT, "circles/circle_red.png");
+    }
+
+    @Test
+    public void yellowMatchesPng() throws IOException {
+        assertMatches(R.color.circle_yellow, CircleBackgroundDrawable.SHAPE_DEFAULT, "circles/circle_yellow.png");
+    }
+
+    @Test
+    public void blueMatchesPng() throws IOException {
+        assertMatches(R.color.circle_blue, CircleBackgroundDrawable.SHAPE_DEFAULT, "circles/circle_blue.png");
+    }
+
+    @Test
+    public void pinkMatchesPng() throws IOException {
+        assertMatches(R.color.circle_pink, CircleBackgroundDrawable.SHAPE_PINK, "circles/circle_pink.png");
+    }
+
+    @Test
+    public void shapeChange_movesGlow() {
+        CircleBackgroundDrawable drawable = new CircleBackgroundDrawable(Color.RED);
+        int before = Color.alpha(render(drawable).getPixel(SIZE - 1, SIZE / 2));
+        drawable.setColor(Color.RED, CircleBackgroundDrawable.SHAPE_PINK);
+        assertEquals(CircleBackgroundDrawable.SHAPE_PINK, drawable.getShape());
+        assertTrue(Color.alpha(render(drawable).getPixel(SIZE - 1, SIZE / 2)) > before);
+    }
+
+    @Test
+    public void colorChangeKeepsShape() {
+        CircleBackgroundDrawable drawable = new CircleBackgroundDrawable(Color.RED);
+        drawable.setColor(Color.BLUE);
+        assertEquals(Color.BLUE, drawable.getColor());
+        Bitmap rendered = render(drawable);
+        assertTrue(Color.alpha(rendered.getPixel(0, 0)) < 8);
+        assertTrue(channelError(rendered.getPixel(SIZE / 2 + 3, SIZE / 2), Color.BLUE) <= 2);
+    }
+
+    private void assertMatches(int colorResId, int shape, String reference) throws IOException {
+        Bitmap rendered = render(new CircleBackgroundDrawable(ContextCompat.getColor(context, colorResId), shape));
+        Bitmap expected;
+        try (InputStream in = testContext.getAssets().open(reference)) {
+            expected = BitmapFactory.decodeStream(in);
+        }
+        assertEquals(SIZE, expected.getWidth());
+        assertEquals(SIZE, expected.getHeight());
+
+        long total = 0;
+        int worst = 0;
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                int error = premultipliedError(rendered.getPixel(x, y), expected.getPixel(x, y));
+                total += error;
+                worst = Math.max(worst, error);
+            }
+        }
+        double mean = (double) total / (SIZE * SIZE);
+        Log.i(TAG, reference + ": средняя ошибка " + mean + ", наибольшая " + worst);
+        assertTrue(reference + ": средняя ошибка " + mean, mean <= MAX_MEAN_ERROR);
+        assertTrue(reference + ": наибольшая ошибка " + worst, worst <= MAX_PIXEL_ERROR);
+    }
+
+    private static Bitmap render(CircleBackgroundDrawable drawable) {
+        Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        drawable.setBounds(0, 0, SIZE, SIZE);
+        drawable.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    // Цвет полупрозрачного пикселя значим только вместе с его прозрачностью
+    private static int premultipliedError(int a, int b) {
+        int alphaA = Color.alpha(a);
+        int alphaB = Color.alpha(b);
+        int error = Math.abs(alphaA - alphaB);
+        error = Math.max(error, Math.abs(Color.red(a) * alphaA - Color.red(b) * alphaB) / 255);
+        error = Math.max(error, Math.abs(Color.green(a) * alphaA - Color.green(b) * alphaB) / 255);
+        error = Math.max(error, Math.abs(Color.blue(a) * alphaA - Color.blue(b) * alphaB) / 255);
+        return error;
+    }
+
+    private static int channelError(int a, int b) {
+        int error = Math.abs(Color.red(a) - Color.red(b));
+        error = Math.max(error, Math.abs(Color.green(a) - Color.green(b)));
+        return Math.max(error, Math.abs(Color.blue(a) - Color.blue(b)));
+    }
+}
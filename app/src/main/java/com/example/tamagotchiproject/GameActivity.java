@@ -9,12 +9,12 @@ import android.text.style.ForegroundColorSpan;
 import android.view.Gravity;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
 import android.widget.TextView;
-import android.animation.ValueAnimator;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
 import androidx.lifecycle.Observer;
@@ -25,8 +25,10 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.example.tamagotchiproject.R;
 import com.example.tamagotchiproject.model.GameSettings;
 import com.example.tamagotchiproject.model.GameState;
-import com.example.tamagotchiproject.model.PetStats;
-import com.example.tamagotchiproject.repository.GameRepository;
+import com.example.tamagotchiproject.ui.CircleBackgroundDrawable;
+import com.example.tamagotchiproject.ui.PetSprites;
+import com.example.tamagotchiproject.ui.StatBarAnimator;
+import com.example.tamagotchiproject.viewmodel.GameUiState;
 import com.example.tamagotchiproject.viewmodel.GameViewModel;
 import com.example.tamagotchiproject.viewmodel.ViewModelFactory;
 
@@ -37,12 +39,45 @@ public class GameActivity extends AppCompatActivity {
     // UI элементы
     private TextView gameTitle, timerText;
     private ProgressBar hungerBar, happinessBar, cleanlinessBar, energyBar;
+    // Все четыре шкалы двигает один обратный вызов кадра
+    private StatBarAnimator barAnimator;
     private ImageView petImage, petBackground, backButton, pauseButton;
 
-    // ID ресурсов для изображений
-    private int normalImageResId = R.drawable.panda;
-    private int sadImageResId = R.drawable.panda_sad;
-    private int leaveImageResId = R.drawable.panda_leave;
+    // Персонаж (0 - настройки ещё не загружены) и показанный кадр
+    private PetSprites sprites;
+    private int petCharacter;
+    private int petFrame = -1;
+    // Последнее показанное состояние экрана
+    private GameUiState renderedState;
+
+    private CircleBackgroundDrawable circleBackground;
+    private int backgroundColorResId = R.color.circle_pink;
+
+    // Моменты (System.nanoTime) первого кадра и первого кадра с загруженной игрой; их читает
+    // GameActivityStartupBenchmark. Второй момент отмечается и для системы через reportFullyDrawn()
+    private volatile long firstFrameAt;
+    private volatile long fullyDrawnAt;
+    private final ViewTreeObserver.OnDrawListener startupDrawListener = new ViewTreeObserver.OnDrawListener() {
+        @Override
+        public void onDraw() {
+            long now = System.nanoTime();
+            if (firstFrameAt == 0) {
+                firstFrameAt = now;
+            }
+            if (fullyDrawnAt == 0 && Boolean.FALSE.equals(viewModel.getIsLoading().getValue())) {
+                fullyDrawnAt = now;
+                reportFullyDrawn();
+                // Снимать слушателя внутри onDraw нельзя
+                final View decorView = getWindow().getDecorView();
+                decorView.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        decorView.getViewTreeObserver().removeOnDrawListener(startupDrawListener);
+                    }
+                });
+            }
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -56,8 +91,12 @@ public class GameActivity extends AppCompatActivity {
         initViews();
         setupObservers();
         setupClickListeners();
+        getWindow().getDecorView().getViewTreeObserver().addOnDrawListener(startupDrawListener);
     }
 
+    long getFirstFrameAt() { return firstFrameAt; }
+    long getFullyDrawnAt() { return fullyDrawnAt; }
+
     private void initViews() {
         gameTitle = findViewById(R.id.gameTitle);
         timerText = findViewById(R.id.timerText);
@@ -66,22 +105,20 @@ public class GameActivity extends AppCompatActivity {
         happinessBar = findViewById(R.id.happinessBar);
         cleanlinessBar = findViewById(R.id.cleanlinessBar);
         energyBar = findViewById(R.id.energyBar);
+        barAnimator = new StatBarAnimator(hungerBar, happinessBar, cleanlinessBar, energyBar);
 
         petImage = findViewById(R.id.petImage);
         petBackground = findViewById(R.id.petBackground);
+        sprites = PetSprites.get(this);
         backButton = findViewById(R.id.backButton);
         pauseButton = findViewById(R.id.pauseButton);
+
+        circleBackground = new CircleBackgroundDrawable(ContextCompat.getColor(this, backgroundColorResId),
+                shapeFor(backgroundColorResId));
+        petBackground.setImageDrawable(circleBackground);
     }
 
     private void setupObservers() {
-        // Наблюдаем за текстом таймера
-        viewModel.getTimerText().observe(this, new Observer<String>() {
-            @Override
-            public void onChanged(String time) {
-                timerText.setText(time);
-            }
-        });
-
         // Наблюдаем за настройками игры
         viewModel.getGameSettings().observe(this, new Observer<GameSettings>() {
             @Override
@@ -98,30 +135,22 @@ public class GameActivity extends AppCompatActivity {
             }
         });
 
-        // Наблюдаем за статистикой питомца
-        viewModel.getPetStats().observe(this, new Observer<PetStats>() {
+        // Шкалы, питомец, фон, таймер и пауза приходят одним состоянием
+        viewModel.getUiState().observe(this, new Observer<GameUiState>() {
             @Override
-            public void onChanged(PetStats stats) {
-                if (stats != null) {
-                    updateProgressBars(stats);
-                    updatePetAppearance(stats);
-                    updatePetBackground(stats);
+            public void onChanged(GameUiState state) {
+                if (state != null) {
+                    render(state);
                 }
             }
         });
 
-        // Наблюдаем за состоянием игры
-        viewModel.getGameState().observe(this, new Observer<GameState>() {
+        // Пока сохранение загружается в фоне, недоступна только пауза: нажатия на кнопки ухода
+        // копятся в очереди ViewModel и применяются к загруженной игре
+        viewModel.getIsLoading().observe(this, new Observer<Boolean>() {
             @Override
-            public void onChanged(GameState gameState) {
-                if (gameState != null) {
-                    // Обновляем UI в зависимости от состояния игры
-                    if (gameState.isPaused()) {
-                        pauseButton.setImageResource(R.drawable.ic_play);
-                    } else {
-                        pauseButton.setImageResource(R.drawable.ic_pause);
-                    }
-                }
+            public void onChanged(Boolean isLoading) {
+                pauseButton.setEnabled(isLoading == null || !isLoading);
             }
         });
 
@@ -191,90 +220,82 @@ public class GameActivity extends AppCompatActivity {
         });
     }
 
-    private void updateProgressBars(PetStats stats) {
-        animateStatChange(hungerBar, stats.getHunger());
-        animateStatChange(happinessBar, stats.getHappiness());
-        animateStatChange(cleanlinessBar, stats.getCleanliness());
-        animateStatChange(energyBar, stats.getEnergy());
-    }
-
-    private void updatePetAppearance(PetStats stats) {
-        boolean isSad = stats.isAnyStatLow();
-        petImage.setImageResource(isSad ? sadImageResId : normalImageResId);
-    }
+    // Трогаем только те view, чьё состояние отличается от показанного
+    private void render(GameUiState state) {
+        int changes = state.changesSince(renderedState);
+        renderedState = state;
 
-    private void updatePetBackground(PetStats stats) {
-        int hunger = stats.getHunger();
-        int happiness = stats.getHappiness();
-        int cleanliness = stats.getCleanliness();
-        int energy = stats.getEnergy();
+        if ((changes & GameUiState.CHANGED_HUNGER) != 0) barAnimator.animateTo(hungerBar, state.getHunger());
+        if ((changes & GameUiState.CHANGED_HAPPINESS) != 0) barAnimator.animateTo(happinessBar, state.getHappiness());
+        if ((changes & GameUiState.CHANGED_CLEANLINESS) != 0) barAnimator.animateTo(cleanlinessBar, state.getCleanliness());
+        if ((changes & GameUiState.CHANGED_ENERGY) != 0) barAnimator.animateTo(energyBar, state.getEnergy());
 
-        if (energy < 40) {
-            petBackground.setImageResource(R.drawable.circle_green);
-            return;
+        if ((changes & GameUiState.CHANGED_MOOD) != 0) {
+            updatePetAppearance(state.getMood());
         }
-
-        if (hunger < 40) {
-            petBackground.setImageResource(R.drawable.circle_red);
-            return;
+        if ((changes & GameUiState.CHANGED_BACKGROUND) != 0) {
+            showBackground(backgroundColorFor(state.getBackground()));
+        }
+        if ((changes & GameUiState.CHANGED_TIMER) != 0) {
+            timerText.setText(state.getTimerText());
+        }
+        if ((changes & GameUiState.CHANGED_PAUSED) != 0) {
+            pauseButton.setImageResource(state.isPaused() ? R.drawable.ic_play : R.drawable.ic_pause);
         }
+    }
 
-        if (cleanliness < 40) {
-            petBackground.setImageResource(R.drawable.circle_yellow);
+    private void updatePetAppearance(int mood) {
+        // Картинку меняем, только когда настроение сменилось
+        int frame = mood == GameUiState.MOOD_SAD ? PetSprites.SAD : PetSprites.NORMAL;
+        if (petCharacter == 0 || frame == petFrame) {
             return;
         }
+        petFrame = frame;
+        petImage.setImageDrawable(sprites.getDrawable(petCharacter, frame));
+    }
 
-        if (happiness < 40) {
-            petBackground.setImageResource(R.drawable.circle_blue);
+    private void showBackground(int colorResId) {
+        // Перекрашиваем, только когда сменилось состояние фона
+        if (colorResId == backgroundColorResId) {
             return;
         }
+        backgroundColorResId = colorResId;
+        circleBackground.animateColor(ContextCompat.getColor(this, colorResId), shapeFor(colorResId));
+    }
 
-        petBackground.setImageResource(R.drawable.circle_pink);
+    private static int shapeFor(int colorResId) {
+        return colorResId == R.color.circle_pink
+                ? CircleBackgroundDrawable.SHAPE_PINK : CircleBackgroundDrawable.SHAPE_DEFAULT;
     }
 
-    private void setPetImage(int characterNumber) {
-        switch (characterNumber) {
-            case 1:
-                normalImageResId = R.drawable.panda;
-                sadImageResId = R.drawable.panda_sad;
-                leaveImageResId = R.drawable.panda_leave;
-                break;
-            case 2:
-                normalImageResId = R.drawable.cat;
-                sadImageResId = R.drawable.cat_sad;
-                leaveImageResId = R.drawable.cat_leave;
-                break;
-            case 3:
-                normalImageResId = R.drawable.frog;
-                sadImageResId = R.drawable.frog_sad;
-                leaveImageResId = R.drawable.frog_leave;
-                break;
-        }
-
-        // Обновляем текущее изображение
-        PetStats stats = viewModel.getPetStats().getValue();
-        if (stats != null) {
-            updatePetAppearance(stats);
+    private static int backgroundColorFor(int background) {
+        switch (background) {
+            case GameUiState.BACKGROUND_TIRED:
+                return R.color.circle_green;
+            case GameUiState.BACKGROUND_HUNGRY:
+                return R.color.circle_red;
+            case GameUiState.BACKGROUND_DIRTY:
+                return R.color.circle_yellow;
+            case GameUiState.BACKGROUND_BORED:
+                return R.color.circle_blue;
+            default:
+                return R.color.circle_pink;
         }
     }
 
-    private void animateStatChange(final ProgressBar progressBar, final int targetValue) {
-        final int currentProgress = progressBar.getProgress();
-
-        if (currentProgress == targetValue) {
+    private void setPetImage(int characterNumber) {
+        if (characterNumber == petCharacter) {
             return;
         }
+        petCharacter = characterNumber;
+        petFrame = -1;
+        // Уходящего питомца готовим заранее, чтобы диалог конца игры не ждал декодирования
+        sprites.prefetch(characterNumber);
 
-        final ValueAnimator animator = ValueAnimator.ofInt(currentProgress, targetValue);
-        animator.setDuration(500);
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                int value = (int) animation.getAnimatedValue();
-                progressBar.setProgress(value);
-            }
-        });
-        animator.start();
+        // Обновляем текущее изображение
+        if (renderedState != null) {
+            updatePetAppearance(renderedState.getMood());
+        }
     }
 
     private void setColoredText(TextView textView, String word) {
@@ -445,15 +466,6 @@ public class GameActivity extends AppCompatActivity {
     private void saveBestTimeOnExit() {
         // Используем метод ViewModel для сохранения лучшего времени
         viewModel.saveBestTimeNow();
-
-        // Дополнительно сохраняем через репозиторий для гарантии
-        GameState gameState = viewModel.getGameState().getValue();
-        GameSettings settings = viewModel.getGameSettings().getValue();
-
-        if (gameState != null && settings != null) {
-            GameRepository repository = new GameRepository(this);
-            repository.saveBestTime(gameState.getElapsedTime(), settings.getGameSpeed());
-        }
     }
 
     // Диалог завершения игры (стилизованный как в оригинале)
@@ -471,11 +483,10 @@ public class GameActivity extends AppCompatActivity {
         String petName = settings.getPetName();
 
         // ВАЖНО: Дополнительное сохранение лучшего времени прямо здесь
-        GameRepository repository = new GameRepository(this);
-        repository.saveBestTime(elapsedTime, gameSpeed);
+        viewModel.saveBestTimeNow();
 
         // Получаем лучшее время для текущего режима для отображения
-        long bestTimeForMode = repository.getBestTime(gameSpeed);
+        long bestTimeForMode = viewModel.getBestTime(gameSpeed);
         String bestTimeFormatted = formatTime(bestTimeForMode);
 
         long seconds = elapsedTime / 1000;
@@ -487,6 +498,11 @@ public class GameActivity extends AppCompatActivity {
 
         String displayName = petName.isEmpty() ? "ТАМАГОЧИ" : petName;
 
+        // Место этой игры среди прошлых забегов режима
+        Integer percent = viewModel.getPercentBeaten().getValue();
+        String beatenLine = percent != null && percent >= 0
+                ? "Лучше, чем " + percent + "% ваших прошлых игр\n" : "";
+
         LinearLayout layout = new LinearLayout(this);
         layout.setOrientation(LinearLayout.VERTICAL);
         layout.setPadding(0, 0, 0, 0);
@@ -497,7 +513,7 @@ public class GameActivity extends AppCompatActivity {
         imageParams.setMargins(0, 0, 0, 0);
         leaveImageView.setLayoutParams(imageParams);
 
-        leaveImageView.setImageResource(leaveImageResId);
+        leaveImageView.setImageDrawable(sprites.getDrawable(petCharacter, PetSprites.LEAVE));
         leaveImageView.setScaleType(ImageView.ScaleType.FIT_CENTER);
 
         TextView messageTextView = new TextView(this);
@@ -511,7 +527,8 @@ public class GameActivity extends AppCompatActivity {
                 "Ваш питомец не выдержал одиночества и сбежал!\n\n" +
                         "Время игры: " + time + "\n" +
                         "Режим игры: " + (gameSpeed == 0 ? "Средний" : "Быстрый") + "\n" +
-                        "Лучшее время для этого режима: " + bestTimeFormatted + "\n\n");
+                        "Лучшее время для этого режима: " + bestTimeFormatted + "\n" +
+                        beatenLine + "\n");
 
         messageTextView.setTypeface(getResources().getFont(R.font.shantellsans_regular));
         messageTextView.setTextColor(ContextCompat.getColor(this, R.color.text_color));
@@ -598,12 +615,14 @@ public class GameActivity extends AppCompatActivity {
     @Override
     protected void onPause() {
         super.onPause();
-        viewModel.saveGame();
+        // Приложение может быть убито в фоне в любой момент: сохранение уходит на диск сразу
+        viewModel.saveGameNow();
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        barAnimator.cancel();
         viewModel.saveGame();
     }
 }
\ No newline at end of file
@@ -15,6 +15,8 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.example.tamagotchiproject.R;
 import com.example.tamagotchiproject.model.GameSettings;
+import com.example.tamagotchiproject.ui.CircleBackgroundDrawable;
+import com.example.tamagotchiproject.ui.PetSprites;
 import com.example.tamagotchiproject.viewmodel.MainViewModel;
 import com.example.tamagotchiproject.viewmodel.ViewModelFactory;
 
@@ -24,6 +26,7 @@ public class MainActivity extends AppCompatActivity {
 
     private TextView titleTextView;
     private ImageView mainPetImage;
+    private int petCharacter;
     private TextView bestTimeMediumText;
     private TextView bestTimeFastText;
 
@@ -39,9 +42,6 @@ public class MainActivity extends AppCompatActivity {
         initViews();
         setupObservers();
         setupClickListeners();
-
-        // Загружаем данные при создании
-        viewModel.loadData();
     }
 
     private void initViews() {
@@ -49,6 +49,11 @@ public class MainActivity extends AppCompatActivity {
         mainPetImage = findViewById(R.id.image);
         bestTimeMediumText = findViewById(R.id.best_time_medium);
         bestTimeFastText = findViewById(R.id.best_time_fast);
+
+        ImageView circleBackground = findViewById(R.id.circle_bg);
+        circleBackground.setImageDrawable(
+                new CircleBackgroundDrawable(ContextCompat.getColor(this, R.color.circle_pink),
+                        CircleBackgroundDrawable.SHAPE_PINK));
     }
 
     private void setupObservers() {
@@ -120,13 +125,6 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // При возвращении из настроек обновляем данные
-        viewModel.loadData();
-    }
-
     private void setColoredText(TextView textView, String word) {
         SpannableString spannableString = new SpannableString(word);
 
@@ -149,19 +147,13 @@ public class MainActivity extends AppCompatActivity {
 
     // Метод для установки картинки питомца
     private void setPetImage(int characterNumber) {
-        switch (characterNumber) {
-            case 1: // Панда
-                mainPetImage.setImageResource(R.drawable.panda);
-                break;
-            case 2: // Кот
-                mainPetImage.setImageResource(R.drawable.cat);
-                break;
-            case 3: // Лягушка
-                mainPetImage.setImageResource(R.drawable.frog);
-                break;
-            default: // По умолчанию панда
-                mainPetImage.setImageResource(R.drawable.panda);
-                break;
+        if (characterNumber == petCharacter) {
+            return;
         }
+        petCharacter = characterNumber;
+        PetSprites sprites = PetSprites.get(this);
+        mainPetImage.setImageDrawable(sprites.getDrawable(characterNumber, PetSprites.NORMAL));
+        // Остальные кадры понадобятся в игре
+        sprites.prefetch(characterNumber);
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.tamagotchiproject;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.text.InputFilter;
 import android.text.SpannableString;
@@ -12,6 +13,7 @@ import android.view.View;
 import android.view.inputmethod.EditorInfo;
 import android.view.inputmethod.InputMethodManager;
 import android.widget.EditText;
+import android.widget.ImageView;
 import android.widget.RadioGroup;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -22,6 +24,9 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.example.tamagotchiproject.R;
 import com.example.tamagotchiproject.model.GameSettings;
+import com.example.tamagotchiproject.repository.GameStore;
+import com.example.tamagotchiproject.ui.CircleBackgroundDrawable;
+import com.example.tamagotchiproject.ui.PetSprites;
 import com.example.tamagotchiproject.viewmodel.SettingsViewModel;
 import com.example.tamagotchiproject.viewmodel.ViewModelFactory;
 
@@ -62,6 +67,16 @@ public class SettingsActivity extends AppCompatActivity {
         character1Background = findViewById(R.id.character1Background);
         character2Background = findViewById(R.id.character2Background);
         character3Background = findViewById(R.id.character3Background);
+        int circleColor = ContextCompat.getColor(this, R.color.circle_pink);
+        character1Background.setBackground(new CircleBackgroundDrawable(circleColor, CircleBackgroundDrawable.SHAPE_PINK));
+        character2Background.setBackground(new CircleBackgroundDrawable(circleColor, CircleBackgroundDrawable.SHAPE_PINK));
+        character3Background.setBackground(new CircleBackgroundDrawable(circleColor, CircleBackgroundDrawable.SHAPE_PINK));
+
+        // Превью персонажей декодируются в фоне и появляются, когда готовы
+        PetSprites sprites = PetSprites.get(this);
+        showPreview(sprites, 1, (ImageView) findViewById(R.id.character1Image));
+        showPreview(sprites, 2, (ImageView) findViewById(R.id.character2Image));
+        showPreview(sprites, 3, (ImageView) findViewById(R.id.character3Image));
 
         character1Text = findViewById(R.id.character1Text);
         character2Text = findViewById(R.id.character2Text);
@@ -70,6 +85,15 @@ public class SettingsActivity extends AppCompatActivity {
         configurePetNameEditText();
     }
 
+    private static void showPreview(PetSprites sprites, int character, final ImageView image) {
+        sprites.load(character, PetSprites.NORMAL, new PetSprites.Callback() {
+            @Override
+            public void onLoaded(Drawable drawable) {
+                image.setImageDrawable(drawable);
+            }
+        });
+    }
+
     private void setupObservers() {
         // Наблюдаем за настройками игры
         viewModel.getGameSettings().observe(this, new Observer<GameSettings>() {
@@ -92,6 +116,14 @@ public class SettingsActivity extends AppCompatActivity {
                 }
             }
         });
+
+        // Сохранять нечего, пока настройки не загружены
+        viewModel.getIsLoading().observe(this, new Observer<Boolean>() {
+            @Override
+            public void onChanged(Boolean isLoading) {
+                findViewById(R.id.saveButton).setEnabled(isLoading == null || !isLoading);
+            }
+        });
     }
 
     private void configurePetNameEditText() {
@@ -136,6 +168,30 @@ public class SettingsActivity extends AppCompatActivity {
         System.arraycopy(filters, 0, newFilters, 0, filters.length);
         newFilters[filters.length] = new InputFilter.LengthFilter(15);
         petNameEditText.setFilters(newFilters);
+
+        // И по байтам: GameStore хранит не больше NAME_BYTES байт UTF-8, лишнее не вводится,
+        // а не обрезается молча при сохранении
+        filters = petNameEditText.getFilters();
+        newFilters = new InputFilter[filters.length + 1];
+        System.arraycopy(filters, 0, newFilters, 0, filters.length);
+        newFilters[filters.length] = new InputFilter() {
+            @Override
+            public CharSequence filter(CharSequence source, int start, int end,
+                                       Spanned dest, int dstart, int dend) {
+                int kept = GameStore.nameBytes(dest) - GameStore.nameBytes(dest.subSequence(dstart, dend));
+                int cut = end;
+                while (cut > start
+                        && kept + GameStore.nameBytes(source.subSequence(start, cut)) > GameStore.NAME_BYTES) {
+                    cut--;
+                    // Не разрываем суррогатную пару
+                    if (cut > start && Character.isHighSurrogate(source.charAt(cut - 1))) {
+                        cut--;
+                    }
+                }
+                return cut == end ? null : source.subSequence(start, cut);
+            }
+        };
+        petNameEditText.setFilters(newFilters);
     }
 
     private void setColoredText(TextView textView, String text) {
@@ -230,6 +286,8 @@ public class SettingsActivity extends AppCompatActivity {
     }
 
     private void selectCharacterUI(int characterNumber) {
+        // Кадры выбранного питомца готовим, пока пользователь ещё в настройках
+        PetSprites.get(this).prefetch(characterNumber);
         hideAllBackgrounds();
         resetAllFonts();
         showSelectedBackground(characterNumber);
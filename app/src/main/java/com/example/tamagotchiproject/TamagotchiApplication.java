@@ -0,0 +1,27 @@
+package com.example.tamagotchiproject;
+
+import android.app.Application;
+import com.example.tamagotchiproject.repository.GameRepository;
+import com.example.tamagotchiproject.ui.PetSprites;
+
+public class TamagotchiApplication extends Application {
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // Пока пользователь смотрит на главный экран, в фоне готовим всё, что нужно игре:
+        // файлы сохранения и журнала, шрифты и картинки выбранного питомца
+        final GameRepository repository = GameRepository.getInstance(this);
+        repository.getBackgroundExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                repository.prewarm();
+
+                getResources().getFont(R.font.shantellsans_bold);
+                getResources().getFont(R.font.shantellsans_regular);
+
+                PetSprites.get(TamagotchiApplication.this).prefetch(repository.getSettings().getCharacter());
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.tamagotchiproject.engine;
+
+// Накопитель действий игрока за один кадр. Каждое действие меняет показатель по правилу
+// x -> min(100, max(0, x + d)), а композиция таких функций - функция того же вида
+// x -> min(hi, max(lo, x + offset)). Поэтому любую серию нажатий можно свернуть в три числа
+// на показатель и применить за один раз с точно тем же результатом, что и по одному
+public final class ActionBatch {
+    // Изменение каждого показателя (сытость, счастье, чистота, энергия) для действий из GameAction
+    private static final int[][] DELTAS = {
+            {0, 0, 0, 0},    // NONE
+            {20, 0, 0, 5},   // FEED
+            {0, 5, 25, 0},   // WASH
+            {0, 20, 0, -10}, // PLAY
+            {-5, 0, 0, 30}   // REST
+    };
+
+    private final int[] offset = new int[4];
+    private final int[] lo = new int[4];
+    private final int[] hi = new int[4];
+    private int count;
+
+    public ActionBatch() {
+        clear();
+    }
+
+    public void clear() {
+        for (int stat = 0; stat < 4; stat++) {
+            offset[stat] = 0;
+            lo[stat] = 0;
+            hi[stat] = 100;
+        }
+        count = 0;
+    }
+
+    public void add(int action) {
+        if (action <= GameAction.NONE || action >= DELTAS.length) {
+            return;
+        }
+        int[] delta = DELTAS[action];
+        for (int stat = 0; stat < 4; stat++) {
+            int d = delta[stat];
+            // clamp(clamp(x + a, lo, hi) + d, 0, 100) = clamp(x + a + d, clamp(lo + d), clamp(hi + d))
+            offset[stat] += d;
+            lo[stat] = clamp(lo[stat] + d);
+            hi[stat] = clamp(hi[stat] + d);
+        }
+        count++;
+    }
+
+    // Добавляет к этой пачке другую, как будто её действия были нажаты следом
+    public void addAll(ActionBatch other) {
+        for (int stat = 0; stat < 4; stat++) {
+            offset[stat] += other.offset[stat];
+            lo[stat] = Math.max(other.lo[stat], Math.min(other.hi[stat], lo[stat] + other.offset[stat]));
+            hi[stat] = Math.max(other.lo[stat], Math.min(other.hi[stat], hi[stat] + other.offset[stat]));
+        }
+        count += other.count;
+    }
+
+    public int applyTo(int stats) {
+        if (count == 0) {
+            return stats;
+        }
+        return PackedStats.pack(
+                apply(0, PackedStats.hunger(stats)),
+                apply(1, PackedStats.happiness(stats)),
+                apply(2, PackedStats.cleanliness(stats)),
+                apply(3, PackedStats.energy(stats)));
+    }
+
+    public ActionBatch copy() {
+        ActionBatch copy = new ActionBatch();
+        copy.addAll(this);
+        return copy;
+    }
+
+    public int size() { return count; }
+    public boolean isEmpty() { return count == 0; }
+
+    private int apply(int stat, int value) {
+        return Math.max(lo[stat], Math.min(hi[stat], value + offset[stat]));
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(100, value));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.tamagotchiproject.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Параллельный Монте-Карло прогон игр для подбора коэффициентов уменьшения и порогов сложности.
+// Каждая игра получает своё зерно из номера, поэтому результат не зависит от разбиения по потокам
+public class BalanceAnalyzer {
+    // Меньше стольких игр на задачу дробить дальше невыгодно
+    private static final long GAMES_PER_LEAF = 4096;
+
+    private final int gameSpeed;
+    private final PlayerPolicy policy;
+    private final long reactionTicks;
+    private final long maxTicks;
+    private final long bucketTicks;
+    private final long seed;
+    private DifficultySchedule schedule = DifficultySchedule.DEFAULT;
+
+    // reactionTicks - как часто игрок смотрит на питомца; maxTicks - предел длины одной игры
+    public BalanceAnalyzer(int gameSpeed, PlayerPolicy policy, long reactionTicks,
+                           long maxTicks, long bucketTicks, long seed) {
+        this.gameSpeed = gameSpeed;
+        this.policy = policy;
+        this.reactionTicks = reactionTicks;
+        this.maxTicks = maxTicks;
+        this.bucketTicks = bucketTicks;
+        this.seed = seed;
+    }
+
+    // Прогон с другой кривой сложности, чтобы сравнить её с исходной
+    public BalanceAnalyzer withDifficultySchedule(DifficultySchedule schedule) {
+        this.schedule = schedule;
+        return this;
+    }
+
+    public BalanceReport run(long games, ForkJoinPool pool) {
+        return pool.invoke(new GamesTask(0, games));
+    }
+
+    private void simulate(long fromGame, long toGame, BalanceReport report) {
+        SimulationEngine engine = new SimulationEngine(gameSpeed, 0L, GameClock.SYSTEM);
+        engine.setDifficultySchedule(schedule);
+        for (long game = fromGame; game < toGame; game++) {
+            engine.reset();
+            engine.reseed(Xoroshiro128PlusPlus.mix64(seed + game));
+
+            long ticks = 0;
+            while (ticks < maxTicks && !engine.isGameOver()) {
+                int action = policy.chooseAction(engine.getStats(), engine.getElapsedTime());
+                if (action != GameAction.NONE) {
+                    engine.apply(action);
+                }
+                // Между решениями игрока перематываем время сразу, а не тик за тиком
+                ticks += engine.fastForward(Math.min(reactionTicks, maxTicks - ticks));
+            }
+
+            if (engine.isGameOver()) {
+                report.recordDeath(ticks, engine.getStats());
+            } else {
+                report.recordSurvival(ticks);
+            }
+        }
+    }
+
+    private class GamesTask extends RecursiveTask<BalanceReport> {
+        private static final long serialVersionUID = 1L;
+
+        private final long fromGame;
+        private final long toGame;
+
+        GamesTask(long fromGame, long toGame) {
+            this.fromGame = fromGame;
+            this.toGame = toGame;
+        }
+
+        @Override
+        protected BalanceReport compute() {
+            if (toGame - fromGame <= GAMES_PER_LEAF) {
+                BalanceReport report = new BalanceReport(gameSpeed, maxTicks, bucketTicks);
+                simulate(fromGame, toGame, report);
+                return report;
+            }
+            long middle = (fromGame + toGame) >>> 1;
+            GamesTask left = new GamesTask(fromGame, middle);
+            GamesTask right = new GamesTask(middle, toGame);
+            left.fork();
+            BalanceReport report = right.compute();
+            report.merge(left.join());
+            return report;
+        }
+    }
+}
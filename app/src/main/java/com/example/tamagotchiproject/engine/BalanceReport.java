@@ -0,0 +1,104 @@
+package com.example.tamagotchiproject.engine;
+
+import java.util.Locale;
+
+// Итог балансировочного прогона: гистограмма времени жизни, процентили и причины гибели
+public class BalanceReport {
+    private static final String[] STAT_NAMES = {"сытость", "счастье", "чистота", "энергия"};
+
+    private final int gameSpeed;
+    private final long bucketTicks;
+    private final long maxTicks;
+    private final long[] histogram;
+    // Сколько раз каждый показатель оказался нулевым в момент гибели
+    private final long[] failuresByStat = new long[4];
+
+    private long games;
+    private long survivedToCap;
+    private long totalTicks;
+
+    public BalanceReport(int gameSpeed, long maxTicks, long bucketTicks) {
+        this.gameSpeed = gameSpeed;
+        this.maxTicks = maxTicks;
+        this.bucketTicks = bucketTicks;
+        this.histogram = new long[(int) (maxTicks / bucketTicks) + 1];
+    }
+
+    void recordDeath(long ticks, int stats) {
+        games++;
+        totalTicks += ticks;
+        histogram[(int) Math.min(histogram.length - 1, ticks / bucketTicks)]++;
+        if (PackedStats.hunger(stats) == 0) failuresByStat[0]++;
+        if (PackedStats.happiness(stats) == 0) failuresByStat[1]++;
+        if (PackedStats.cleanliness(stats) == 0) failuresByStat[2]++;
+        if (PackedStats.energy(stats) == 0) failuresByStat[3]++;
+    }
+
+    void recordSurvival(long ticks) {
+        games++;
+        survivedToCap++;
+        totalTicks += ticks;
+        histogram[histogram.length - 1]++;
+    }
+
+    void merge(BalanceReport other) {
+        games += other.games;
+        survivedToCap += other.survivedToCap;
+        totalTicks += other.totalTicks;
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] += other.histogram[i];
+        }
+        for (int i = 0; i < failuresByStat.length; i++) {
+            failuresByStat[i] += other.failuresByStat[i];
+        }
+    }
+
+    // Процентиль времени жизни в секундах (с точностью до ширины столбца гистограммы)
+    public long percentileSeconds(double quantile) {
+        long rank = (long) Math.ceil(quantile * games);
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(maxTicks, (i + 1) * bucketTicks) * SimulationEngine.TICK_MILLIS / 1000;
+            }
+        }
+        return maxTicks * SimulationEngine.TICK_MILLIS / 1000;
+    }
+
+    public double meanSeconds() {
+        return games == 0 ? 0 : totalTicks * (SimulationEngine.TICK_MILLIS / 1000.0) / games;
+    }
+
+    public int getGameSpeed() { return gameSpeed; }
+    public long getGames() { return games; }
+    public long getSurvivedToCap() { return survivedToCap; }
+    public long[] getHistogram() { return histogram.clone(); }
+    public long getBucketTicks() { return bucketTicks; }
+
+    public long getFailures(int stat) { return failuresByStat[stat]; }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "Режим %s: %d игр, в среднем %.1f с, дожили до предела: %d%n",
+                gameSpeed == 0 ? "средний" : "быстрый", games, meanSeconds(), survivedToCap));
+        out.append(String.format(Locale.ROOT, "  p10=%d с  p50=%d с  p90=%d с  p99=%d с%n",
+                percentileSeconds(0.10), percentileSeconds(0.50),
+                percentileSeconds(0.90), percentileSeconds(0.99)));
+        out.append("  причины гибели:");
+        long deaths = games - survivedToCap;
+        for (int i = 0; i < STAT_NAMES.length; i++) {
+            double share = deaths == 0 ? 0 : 100.0 * failuresByStat[i] / deaths;
+            out.append(String.format(Locale.ROOT, " %s %.1f%%", STAT_NAMES[i], share));
+        }
+        out.append(String.format("%n  гистограмма (столбец %d с):%n", bucketTicks * SimulationEngine.TICK_MILLIS / 1000));
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] > 0) {
+                out.append(String.format(Locale.ROOT, "    %6d с: %d%n",
+                        i * bucketTicks * SimulationEngine.TICK_MILLIS / 1000, histogram[i]));
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.tamagotchiproject.engine;
+
+// Выборка из биномиального распределения методом обращения (точный, O(n * p) в среднем)
+final class Binomial {
+    // При больших n величина (1 - p)^n уходит в ноль, поэтому делим выборку пополам
+    private static final int MAX_DIRECT_TRIALS = 512;
+
+    private Binomial() {
+    }
+
+    static int sample(PetRandom random, int trials, double p) {
+        if (trials <= 0 || p <= 0) {
+            return 0;
+        }
+        if (p >= 1) {
+            return trials;
+        }
+        if (trials > MAX_DIRECT_TRIALS) {
+            int half = trials / 2;
+            return sample(random, half, p) + sample(random, trials - half, p);
+        }
+        // Считаем по меньшей из вероятностей, чтобы цикл был короче
+        if (p > 0.5) {
+            return trials - sampleDirect(random, trials, 1 - p);
+        }
+        return sampleDirect(random, trials, p);
+    }
+
+    private static int sampleDirect(PetRandom random, int trials, double p) {
+        double q = 1 - p;
+        double s = p / q;
+        double a = (trials + 1) * s;
+        double r = Math.pow(q, trials);
+        double u = random.nextDouble();
+        int x = 0;
+        while (u > r && x < trials) {
+            u -= r;
+            x++;
+            r *= (a / x - s);
+        }
+        return x;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.tamagotchiproject.engine;
+
+// Заранее посчитанная модель уменьшения характеристик для каждой пары (уровень сложности 1..5, скорость).
+// Одна строка плоского массива: упакованное базовое уменьшение, интервал в тиках и четыре порога
+// случайных добавок. В горячем цикле нет ни float, ни Math.round - только чтение из таблицы
+public final class DecayTable {
+    public static final int MIN_LEVEL = 1;
+    public static final int MAX_LEVEL = 5;
+    public static final int SPEEDS = 2;
+
+    // Коэффициенты уменьшения для разных показателей (используются только при построении таблицы)
+    public static final float HUNGER_DECREASE_RATE = 1.2f;
+    public static final float HAPPINESS_DECREASE_RATE = 1.0f;
+    public static final float CLEANLINESS_DECREASE_RATE = 0.8f;
+    public static final float ENERGY_DECREASE_RATE = 0.9f;
+
+    private static final int DECREASE = 0;
+    private static final int INTERVAL = 1;
+    private static final int THRESHOLDS = 2;
+    private static final int STRIDE = 6;
+
+    private static final int[] TABLE = build();
+
+    private DecayTable() {
+    }
+
+    private static int[] build() {
+        int[] table = new int[(MAX_LEVEL - MIN_LEVEL + 1) * SPEEDS * STRIDE];
+        for (int level = MIN_LEVEL; level <= MAX_LEVEL; level++) {
+            for (int speed = 0; speed < SPEEDS; speed++) {
+                int row = row(level, speed);
+                table[row + DECREASE] = PackedStats.pack(
+                        stepDecrease(level, HUNGER_DECREASE_RATE),
+                        stepDecrease(level, HAPPINESS_DECREASE_RATE),
+                        stepDecrease(level, CLEANLINESS_DECREASE_RATE),
+                        stepDecrease(level, ENERGY_DECREASE_RATE));
+                // В среднем режиме характеристики уменьшаются раз в 30 тиков, в быстром - каждый тик
+                table[row + INTERVAL] = (speed == 0) ? 30 : 1;
+                table[row + THRESHOLDS] = PetRandom.HUNGER_EXTRA_THRESHOLD;
+                table[row + THRESHOLDS + 1] = PetRandom.HAPPINESS_EXTRA_THRESHOLD;
+                table[row + THRESHOLDS + 2] = PetRandom.CLEANLINESS_EXTRA_THRESHOLD;
+                table[row + THRESHOLDS + 3] = PetRandom.ENERGY_EXTRA_THRESHOLD;
+            }
+        }
+        return table;
+    }
+
+    private static int stepDecrease(int difficultyLevel, float rate) {
+        return Math.max(1, Math.round(difficultyLevel * rate));
+    }
+
+    // Смещение строки в таблице; уровень вне 1..5 прижимается к границе, неизвестная скорость считается средней
+    public static int row(int difficultyLevel, int gameSpeed) {
+        int level = Math.max(MIN_LEVEL, Math.min(MAX_LEVEL, difficultyLevel));
+        int speed = (gameSpeed == 1) ? 1 : 0;
+        return ((level - MIN_LEVEL) * SPEEDS + speed) * STRIDE;
+    }
+
+    // Базовое уменьшение за один шаг, упакованное как PackedStats
+    public static int decrease(int row) {
+        return TABLE[row + DECREASE];
+    }
+
+    // Через сколько тиков происходит очередной шаг уменьшения
+    public static int interval(int row) {
+        return TABLE[row + INTERVAL];
+    }
+
+    // 16-битный порог случайной добавки для показателя (0 - сытость, 1 - счастье, 2 - чистота, 3 - энергия)
+    public static int threshold(int row, int stat) {
+        return TABLE[row + THRESHOLDS + stat];
+    }
+
+    public static double extraChance(int row, int stat) {
+        return threshold(row, stat) / 65536.0;
+    }
+
+    // Случайные добавки для всех четырёх показателей из одного 64-битного слова, упакованные как PackedStats
+    public static int extras(int row, long word) {
+        return PetRandom.extra(word, TABLE[row + THRESHOLDS])
+                | PetRandom.extra(word >>> 16, TABLE[row + THRESHOLDS + 1]) << 8
+                | PetRandom.extra(word >>> 32, TABLE[row + THRESHOLDS + 2]) << 16
+                | PetRandom.extra(word >>> 48, TABLE[row + THRESHOLDS + 3]) << 24;
+    }
+
+    // Один шаг уменьшения: то, что делают и SimulationEngine, и PetStats, и (по байтам) PetStatsBank
+    public static int decay(int stats, int row, long word) {
+        return PackedStats.subtract(stats, decrease(row) + extras(row, word));
+    }
+}
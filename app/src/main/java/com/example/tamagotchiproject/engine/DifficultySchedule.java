@@ -0,0 +1,78 @@
+package com.example.tamagotchiproject.engine;
+
+import java.util.Arrays;
+
+// Кривая сложности: моменты прошедшего времени (в мс), когда уровень повышается на единицу.
+// Уровень в любой момент и время следующей смены находятся двоичным поиском, без лесенки if/else
+public final class DifficultySchedule {
+    // Исходная кривая игры: 2-й уровень с 1-й минуты, 3-й со 2-й, 4-й с 5-й, 5-й с 10-й
+    public static final DifficultySchedule DEFAULT = ofMinutes(1, 2, 5, 10);
+
+    private final long[] transitions;
+
+    private DifficultySchedule(long[] transitions) {
+        if (transitions.length > DecayTable.MAX_LEVEL - DecayTable.MIN_LEVEL) {
+            throw new IllegalArgumentException("Слишком много уровней: " + (transitions.length + 1));
+        }
+        for (int i = 0; i < transitions.length; i++) {
+            if (transitions[i] <= 0 || (i > 0 && transitions[i] <= transitions[i - 1])) {
+                throw new IllegalArgumentException("Пороги сложности должны строго возрастать: "
+                        + Arrays.toString(transitions));
+            }
+        }
+        this.transitions = transitions;
+    }
+
+    public static DifficultySchedule ofMillis(long... transitions) {
+        return new DifficultySchedule(transitions.clone());
+    }
+
+    // Из конфигурации (например, integer-array в ресурсах): минуты, с которых начинаются уровни 2, 3, ...
+    public static DifficultySchedule ofMinutes(int... minutes) {
+        long[] transitions = new long[minutes.length];
+        for (int i = 0; i < minutes.length; i++) {
+            transitions[i] = minutes[i] * 60000L;
+        }
+        return new DifficultySchedule(transitions);
+    }
+
+    public int levelAt(long elapsedTime) {
+        return DecayTable.MIN_LEVEL + transitionsPassed(elapsedTime);
+    }
+
+    // Момент (в мс прошедшего времени), когда уровень сменится, или Long.MAX_VALUE на последнем уровне
+    public long nextTransitionAt(long elapsedTime) {
+        int passed = transitionsPassed(elapsedTime);
+        return passed < transitions.length ? transitions[passed] : Long.MAX_VALUE;
+    }
+
+    public int getMaxLevel() {
+        return DecayTable.MIN_LEVEL + transitions.length;
+    }
+
+    // Сколько порогов уже пройдено: число элементов transitions, не превосходящих elapsedTime
+    private int transitionsPassed(long elapsedTime) {
+        int low = 0;
+        int high = transitions.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (transitions[middle] <= elapsedTime) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DifficultySchedule
+                && Arrays.equals(((DifficultySchedule) o).transitions, transitions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(transitions);
+    }
+}
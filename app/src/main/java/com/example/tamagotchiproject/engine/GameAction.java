@@ -0,0 +1,28 @@
+package com.example.tamagotchiproject.engine;
+
+// Действия игрока в виде целых кодов, чтобы их можно было хранить в очередях и журналах без объектов
+public final class GameAction {
+    public static final int NONE = 0;
+    public static final int FEED = 1;
+    public static final int WASH = 2;
+    public static final int PLAY = 3;
+    public static final int REST = 4;
+
+    private GameAction() {
+    }
+
+    public static int apply(int stats, int action) {
+        switch (action) {
+            case FEED:
+                return PackedStats.feed(stats);
+            case WASH:
+                return PackedStats.wash(stats);
+            case PLAY:
+                return PackedStats.play(stats);
+            case REST:
+                return PackedStats.rest(stats);
+            default:
+                return stats;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.tamagotchiproject.engine;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Единственный писатель состояния игры. Тики, действия игрока, пауза и сброс приходят командами
+// в очередь, а применяет их всегда ровно один поток - тот, кто первым застал очередь пустой
+// (отдельный поток не заводится). Читатели берут неизменяемый GameSnapshot без блокировок
+public class GameActor {
+    public interface Listener {
+        // Вызывается после каждой пачки команд, по очереди, на потоке, применившем команды
+        void onSnapshot(GameSnapshot snapshot);
+    }
+
+    // Приёмник событий для журнала: вызывается писателем после каждого изменения характеристик
+    public interface Journal {
+        int DECAY = 1;
+        int ACTION = 2;
+        int BATCH = 3;
+        int RESET = 4;
+
+        void record(int type, int detail, int stats, long elapsedTime);
+    }
+
+    private static final int TICK = 0;
+    private static final int ACTION = 1;
+    private static final int PAUSE = 2;
+    private static final int RESUME = 3;
+    private static final int RESET = 4;
+    private static final int BATCH = 5;
+
+    // Команды без параметров создаются один раз
+    private static final Command TICK_COMMAND = new Command(TICK, 0);
+    private static final Command FEED_COMMAND = new Command(ACTION, GameAction.FEED);
+    private static final Command WASH_COMMAND = new Command(ACTION, GameAction.WASH);
+    private static final Command PLAY_COMMAND = new Command(ACTION, GameAction.PLAY);
+    private static final Command REST_COMMAND = new Command(ACTION, GameAction.REST);
+    private static final Command PAUSE_COMMAND = new Command(PAUSE, 0);
+    private static final Command RESUME_COMMAND = new Command(RESUME, 0);
+
+    private final ConcurrentLinkedQueue<Command> queue = new ConcurrentLinkedQueue<>();
+    // Число команд, поставленных, но ещё не учтённых писателем; ненулевое значение - кто-то уже пишет
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicReference<GameSnapshot> snapshot = new AtomicReference<>();
+
+    // Всё ниже меняет только текущий писатель
+    private final SimulationEngine engine;
+    private boolean paused;
+    private long version;
+
+    private volatile Listener listener;
+    private volatile Journal journal;
+
+    public GameActor(SimulationEngine engine) {
+        this.engine = engine;
+        publish();
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    public GameSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    // Догнать часы: выполнить все тики, накопившиеся с прошлого раза
+    public void tick() { submit(TICK_COMMAND); }
+
+    public void feed() { submit(FEED_COMMAND); }
+    public void wash() { submit(WASH_COMMAND); }
+    public void play() { submit(PLAY_COMMAND); }
+    public void rest() { submit(REST_COMMAND); }
+
+    public void perform(int action) {
+        switch (action) {
+            case GameAction.FEED: feed(); break;
+            case GameAction.WASH: wash(); break;
+            case GameAction.PLAY: play(); break;
+            case GameAction.REST: rest(); break;
+            default: break;
+        }
+    }
+
+    // Все действия за кадр одной командой; пачка копируется, её можно сразу очищать
+    public void apply(ActionBatch batch) {
+        if (!batch.isEmpty()) {
+            submit(new Command(BATCH, 0, batch.copy()));
+        }
+    }
+
+    public void pause() { submit(PAUSE_COMMAND); }
+    public void resume() { submit(RESUME_COMMAND); }
+
+    public void reset(long seed) { submit(new Command(RESET, seed)); }
+
+    private void submit(Command command) {
+        queue.offer(command);
+        if (pending.getAndIncrement() != 0) {
+            // Команду применит текущий писатель
+            return;
+        }
+
+        int missed = 1;
+        do {
+            Command next;
+            while ((next = queue.poll()) != null) {
+                execute(next);
+            }
+            publish();
+            missed = pending.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void execute(Command command) {
+        version++;
+        int before = engine.getStats();
+        switch (command.type) {
+            case TICK:
+                if (!paused) {
+                    engine.advance();
+                }
+                if (engine.getStats() != before) {
+                    record(Journal.DECAY, 0);
+                }
+                break;
+            case ACTION:
+                engine.apply((int) command.argument);
+                record(Journal.ACTION, (int) command.argument);
+                break;
+            case PAUSE:
+                paused = true;
+                break;
+            case RESUME:
+                if (paused) {
+                    paused = false;
+                    // Время паузы не должно превратиться в пропущенные тики
+                    engine.syncClock();
+                }
+                break;
+            case BATCH:
+                engine.apply(command.batch);
+                record(Journal.BATCH, Math.min(15, command.batch.size()));
+                break;
+            case RESET:
+                paused = false;
+                engine.reset();
+                engine.reseed(command.argument);
+                record(Journal.RESET, 0);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void record(int type, int detail) {
+        Journal current = journal;
+        if (current != null) {
+            current.record(type, detail, engine.getStats(), engine.getElapsedTime());
+        }
+    }
+
+    private void publish() {
+        // Зерно для сохранения только выводится из состояния генератора: живой поток не сдвигается
+        // и не пересоздаётся, поэтому результат не зависит от того, как команды сгруппировались при разборе
+        long seed = engine.getRandom().deriveSeed();
+        boolean over = engine.isGameOver() || engine.isAnyStatCritical();
+        long nextEventAt = (paused || over)
+                ? Long.MAX_VALUE
+                : engine.getClock().now() + engine.millisUntilNextEvent();
+
+        GameSnapshot published = new GameSnapshot(engine.getStats(), engine.getElapsedTime(),
+                engine.getDifficultyLevel(), over, paused, seed, nextEventAt, version);
+        snapshot.set(published);
+
+        Listener current = listener;
+        if (current != null) {
+            current.onSnapshot(published);
+        }
+    }
+
+    private static final class Command {
+        final int type;
+        final long argument;
+        final ActionBatch batch;
+
+        Command(int type, long argument) {
+            this(type, argument, null);
+        }
+
+        Command(int type, long argument, ActionBatch batch) {
+            this.type = type;
+            this.argument = argument;
+            this.batch = batch;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.tamagotchiproject.engine;
+
+// Источник времени для симуляции, в тестах подменяется на управляемый вручную
+public interface GameClock {
+    GameClock SYSTEM = System::currentTimeMillis;
+
+    long now();
+}
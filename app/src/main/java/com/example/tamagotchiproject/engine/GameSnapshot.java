@@ -0,0 +1,45 @@
+package com.example.tamagotchiproject.engine;
+
+// Неизменяемый снимок игры, который публикует GameActor. Читается из любого потока без блокировок
+public final class GameSnapshot {
+    private final int stats;
+    private final long elapsedTime;
+    private final int difficultyLevel;
+    private final boolean gameOver;
+    private final boolean paused;
+    private final long rngSeed;
+    private final long nextEventAt;
+    private final long version;
+
+    GameSnapshot(int stats, long elapsedTime, int difficultyLevel, boolean gameOver,
+                 boolean paused, long rngSeed, long nextEventAt, long version) {
+        this.stats = stats;
+        this.elapsedTime = elapsedTime;
+        this.difficultyLevel = difficultyLevel;
+        this.gameOver = gameOver;
+        this.paused = paused;
+        this.rngSeed = rngSeed;
+        this.nextEventAt = nextEventAt;
+        this.version = version;
+    }
+
+    // Характеристики в упакованном виде, см. PackedStats
+    public int getStats() { return stats; }
+    public long getElapsedTime() { return elapsedTime; }
+    public int getDifficultyLevel() { return difficultyLevel; }
+    public boolean isGameOver() { return gameOver; }
+    public boolean isPaused() { return paused; }
+
+    // Зерно, выведенное из состояния генератора на момент снимка: его и нужно сохранять, с него игра продолжится после загрузки
+    public long getRngSeed() { return rngSeed; }
+
+    // Момент по часам игры, когда что-то изменится (Long.MAX_VALUE на паузе или после конца игры)
+    public long getNextEventAt() { return nextEventAt; }
+
+    // Сколько команд применено к моменту снимка
+    public long getVersion() { return version; }
+
+    public boolean isAnyStatCritical() {
+        return PackedStats.isAnyStatCritical(stats);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.tamagotchiproject.engine;
+
+// Все четыре показателя (0..100) в одном int, по байту на показатель:
+// биты 0-7 - сытость, 8-15 - счастье, 16-23 - чистота, 24-31 - энергия.
+// Все операции - чистые функции int -> int без выделения памяти
+public final class PackedStats {
+    private static final int HIGH_BITS = 0x80808080;
+    private static final int LOW_BITS = 0x01010101;
+    private static final int LANE_MAX = 0x64646464;      // 100 в каждом байте
+    private static final int OVERFLOW_BIAS = 0x1B1B1B1B; // 127 - 100
+    private static final int LOW_THRESHOLD = 0x28282828; // 40 в каждом байте
+
+    public static final int FULL = LANE_MAX;
+
+    private static final int FEED_ADD = pack(20, 0, 0, 5);
+    private static final int WASH_ADD = pack(0, 5, 25, 0);
+    private static final int PLAY_ADD = pack(0, 20, 0, 0);
+    private static final int PLAY_SUB = pack(0, 0, 0, 10);
+    private static final int REST_ADD = pack(0, 0, 0, 30);
+    private static final int REST_SUB = pack(5, 0, 0, 0);
+
+    private PackedStats() {
+    }
+
+    public static int pack(int hunger, int happiness, int cleanliness, int energy) {
+        return clamp(hunger)
+                | clamp(happiness) << 8
+                | clamp(cleanliness) << 16
+                | clamp(energy) << 24;
+    }
+
+    public static int hunger(int stats) { return stats & 0xFF; }
+    public static int happiness(int stats) { return (stats >>> 8) & 0xFF; }
+    public static int cleanliness(int stats) { return (stats >>> 16) & 0xFF; }
+    public static int energy(int stats) { return stats >>> 24; }
+
+    // Побайтное сложение с насыщением до 100. Сумма в байте не больше 200, переносов между байтами нет
+    public static int add(int stats, int delta) {
+        int sum = stats + delta;
+        int over = (sum + OVERFLOW_BIAS) & HIGH_BITS;   // старший бит байта выставлен, если сумма > 100
+        int mask = (over >>> 7) * 0xFF;
+        return (sum & ~mask) | (LANE_MAX & mask);
+    }
+
+    // Побайтное вычитание с насыщением до 0. Старший бит каждого байта служит заёмом
+    public static int subtract(int stats, int delta) {
+        int diff = (stats | HIGH_BITS) - delta;
+        int mask = ((diff & HIGH_BITS) >>> 7) * 0xFF; // старший бит сброшен, если ушли в минус
+        return diff & ~HIGH_BITS & mask;
+    }
+
+    public static int feed(int stats) { return add(stats, FEED_ADD); }
+    public static int wash(int stats) { return add(stats, WASH_ADD); }
+    public static int play(int stats) { return subtract(add(stats, PLAY_ADD), PLAY_SUB); }
+    public static int rest(int stats) { return subtract(add(stats, REST_ADD), REST_SUB); }
+
+    // Есть ли нулевой байт
+    public static boolean isAnyStatCritical(int stats) {
+        return ((stats - LOW_BITS) & ~stats & HIGH_BITS) != 0;
+    }
+
+    // Есть ли байт меньше 40 (значения не превышают 127, поэтому проверка точная)
+    public static boolean isAnyStatLow(int stats) {
+        return ((stats - LOW_THRESHOLD) & ~stats & HIGH_BITS) != 0;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(100, value));
+    }
+}
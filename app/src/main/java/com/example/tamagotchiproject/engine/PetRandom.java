@@ -0,0 +1,29 @@
+package com.example.tamagotchiproject.engine;
+
+// Источник случайности для одного питомца. У каждого питомца свой поток, поэтому
+// параллельные симуляции не делят общий генератор, а прогон с тем же зерном повторяется бит в бит
+public interface PetRandom {
+    // Пороги случайных добавок в 16-битной шкале (их раскладывает по строкам DecayTable): Math.random() > 0.7 означает вероятность 0.3 и т.д.
+    int HUNGER_EXTRA_THRESHOLD = 19661;      // 0.3
+    int HAPPINESS_EXTRA_THRESHOLD = 19661;   // 0.3
+    int CLEANLINESS_EXTRA_THRESHOLD = 32768; // 0.5
+    int ENERGY_EXTRA_THRESHOLD = 26214;      // 0.4
+
+    long nextLong();
+
+    // Независимый поток для другого питомца или потока
+    PetRandom split();
+
+    // Зерно нового потока, зависящее только от текущего состояния; сам поток не сдвигается.
+    // Его сохраняют на диск: после загрузки игра не повторит уже выпавшие случайности
+    long deriveSeed();
+
+    default double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    // 1, если младшие 16 бит меньше порога; без ветвления
+    static int extra(long bits, int threshold) {
+        return ((int) (bits & 0xFFFF) - threshold) >>> 31;
+    }
+}
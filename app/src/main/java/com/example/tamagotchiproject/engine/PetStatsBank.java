@@ -0,0 +1,206 @@
+package com.example.tamagotchiproject.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Характеристики большого числа питомцев в виде отдельных массивов байт (каждый показатель 0..100).
+// Уменьшение выполняется одним проходом без ветвлений, поэтому цикл хорошо оптимизируется JIT
+public class PetStatsBank {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    // Меньше этого числа питомцев делить работу между потоками невыгодно
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final int size;
+    private final byte[] hunger;
+    private final byte[] happiness;
+    private final byte[] cleanliness;
+    private final byte[] energy;
+
+    // Бит i выставлен, если питомец i на последнем шаге стал грустным или критическим
+    private final long[] changed;
+
+    private final long seed;
+    private long step;
+    private int decreaseCounter = 0;
+
+    public PetStatsBank(int size, long seed) {
+        this.size = size;
+        this.seed = seed;
+        this.hunger = new byte[size];
+        this.happiness = new byte[size];
+        this.cleanliness = new byte[size];
+        this.energy = new byte[size];
+        this.changed = new long[(size + 63) >>> 6];
+        resetAll();
+    }
+
+    public void resetAll() {
+        java.util.Arrays.fill(hunger, (byte) 100);
+        java.util.Arrays.fill(happiness, (byte) 100);
+        java.util.Arrays.fill(cleanliness, (byte) 100);
+        java.util.Arrays.fill(energy, (byte) 100);
+        java.util.Arrays.fill(changed, 0L);
+        decreaseCounter = 0;
+        step = 0;
+    }
+
+    public void set(int pet, int hungerValue, int happinessValue, int cleanlinessValue, int energyValue) {
+        hunger[pet] = (byte) clamp(hungerValue);
+        happiness[pet] = (byte) clamp(happinessValue);
+        cleanliness[pet] = (byte) clamp(cleanlinessValue);
+        energy[pet] = (byte) clamp(energyValue);
+    }
+
+    // Один тик для всех питомцев. Возвращает битовую карту тех, кто на этом тике стал
+    // грустным (< 40) или критическим (0). Массив переиспользуется между вызовами
+    public long[] decayAll(int difficultyLevel, int gameSpeed) {
+        java.util.Arrays.fill(changed, 0L);
+        int row = DecayTable.row(difficultyLevel, gameSpeed);
+        if (!nextTickDecays(row)) {
+            return changed;
+        }
+        decayRange(0, changed.length, row, step++);
+        return changed;
+    }
+
+    // То же, что decayAll, но блоки по 64 питомца обрабатываются в пуле fork-join.
+    // Случайные добавки зависят только от номера питомца и шага, поэтому результат совпадает
+    public long[] decayAllParallel(int difficultyLevel, int gameSpeed, ForkJoinPool pool) {
+        java.util.Arrays.fill(changed, 0L);
+        int row = DecayTable.row(difficultyLevel, gameSpeed);
+        if (!nextTickDecays(row)) {
+            return changed;
+        }
+        pool.invoke(new DecayTask(0, changed.length, row, step++));
+        return changed;
+    }
+
+    private boolean nextTickDecays(int row) {
+        decreaseCounter++;
+        if (decreaseCounter < DecayTable.interval(row)) {
+            return false;
+        }
+        decreaseCounter = 0;
+        return true;
+    }
+
+    // Обрабатывает блоки [fromWord, toWord) битовой карты, т.е. питомцев 64 * fromWord ..
+    private void decayRange(int fromWord, int toWord, int row, long stepIndex) {
+        final int decrease = DecayTable.decrease(row);
+        final int dh = PackedStats.hunger(decrease);
+        final int dha = PackedStats.happiness(decrease);
+        final int dc = PackedStats.cleanliness(decrease);
+        final int de = PackedStats.energy(decrease);
+        final int th = DecayTable.threshold(row, 0);
+        final int tha = DecayTable.threshold(row, 1);
+        final int tc = DecayTable.threshold(row, 2);
+        final int te = DecayTable.threshold(row, 3);
+        final long base = Xoroshiro128PlusPlus.mix64(seed + stepIndex * GOLDEN_GAMMA);
+
+        final byte[] h = hunger;
+        final byte[] ha = happiness;
+        final byte[] c = cleanliness;
+        final byte[] e = energy;
+
+        for (int word = fromWord; word < toWord; word++) {
+            int start = word << 6;
+            int end = Math.min(size, start + 64);
+            long bits = 0L;
+
+            for (int i = start; i < end; i++) {
+                // Финализатор SplitMix64: из номера питомца и шага получаем независимое 64-битное слово
+                long noise = Xoroshiro128PlusPlus.mix64(base + i * GOLDEN_GAMMA);
+
+                int oldH = h[i];
+                int oldHa = ha[i];
+                int oldC = c[i];
+                int oldE = e[i];
+
+                // Случайные добавки по 16 бит на показатель, как в DecayTable.extras()
+                int newH = oldH - dh - PetRandom.extra(noise, th);
+                int newHa = oldHa - dha - PetRandom.extra(noise >>> 16, tha);
+                int newC = oldC - dc - PetRandom.extra(noise >>> 32, tc);
+                int newE = oldE - de - PetRandom.extra(noise >>> 48, te);
+
+                // max(0, x) без ветвления
+                newH &= ~(newH >> 31);
+                newHa &= ~(newHa >> 31);
+                newC &= ~(newC >> 31);
+                newE &= ~(newE >> 31);
+
+                h[i] = (byte) newH;
+                ha[i] = (byte) newHa;
+                c[i] = (byte) newC;
+                e[i] = (byte) newE;
+
+                int wasLow = lowBit(oldH) | lowBit(oldHa) | lowBit(oldC) | lowBit(oldE);
+                int isLow = lowBit(newH) | lowBit(newHa) | lowBit(newC) | lowBit(newE);
+                int wasCritical = zeroBit(oldH) | zeroBit(oldHa) | zeroBit(oldC) | zeroBit(oldE);
+                int isCritical = zeroBit(newH) | zeroBit(newHa) | zeroBit(newC) | zeroBit(newE);
+                int flag = (isLow & ~wasLow) | (isCritical & ~wasCritical);
+
+                bits |= (long) flag << i;
+            }
+            changed[word] = bits;
+        }
+    }
+
+    private static int lowBit(int value) {
+        return (value - 40) >>> 31;
+    }
+
+    private static int zeroBit(int value) {
+        return (value - 1) >>> 31;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(100, value));
+    }
+
+    public int size() { return size; }
+
+    public int getHunger(int pet) { return hunger[pet]; }
+    public int getHappiness(int pet) { return happiness[pet]; }
+    public int getCleanliness(int pet) { return cleanliness[pet]; }
+    public int getEnergy(int pet) { return energy[pet]; }
+
+    public boolean isCritical(int pet) {
+        return hunger[pet] <= 0 || happiness[pet] <= 0 || cleanliness[pet] <= 0 || energy[pet] <= 0;
+    }
+
+    public boolean isLow(int pet) {
+        return hunger[pet] < 40 || happiness[pet] < 40 || cleanliness[pet] < 40 || energy[pet] < 40;
+    }
+
+    public static boolean isSet(long[] bitmap, int pet) {
+        return (bitmap[pet >>> 6] & (1L << pet)) != 0;
+    }
+
+    private class DecayTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int fromWord;
+        private final int toWord;
+        private final int row;
+        private final long stepIndex;
+
+        DecayTask(int fromWord, int toWord, int row, long stepIndex) {
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+            this.row = row;
+            this.stepIndex = stepIndex;
+        }
+
+        @Override
+        protected void compute() {
+            if ((toWord - fromWord) << 6 <= PARALLEL_THRESHOLD) {
+                decayRange(fromWord, toWord, row, stepIndex);
+                return;
+            }
+            int middle = (fromWord + toWord) >>> 1;
+            invokeAll(new DecayTask(fromWord, middle, row, stepIndex),
+                    new DecayTask(middle, toWord, row, stepIndex));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.tamagotchiproject.engine;
+
+// Сценарий поведения игрока для балансировочных прогонов: по текущим характеристикам
+// (упакованным, см. PackedStats) выбирает действие из GameAction
+public interface PlayerPolicy {
+    int chooseAction(int stats, long elapsedTime);
+
+    // Игрок ничего не делает
+    static PlayerPolicy idle() {
+        return (stats, elapsedTime) -> GameAction.NONE;
+    }
+
+    // "Кормить, когда сытость ниже порога"
+    static PlayerPolicy feedWhenHungerBelow(final int threshold) {
+        return (stats, elapsedTime) ->
+                PackedStats.hunger(stats) < threshold ? GameAction.FEED : GameAction.NONE;
+    }
+
+    // Следит за всеми показателями и чинит самый низкий из тех, что ниже порога
+    static PlayerPolicy careWhenBelow(final int threshold) {
+        return (stats, elapsedTime) -> {
+            int action = GameAction.NONE;
+            int lowest = threshold;
+            if (PackedStats.hunger(stats) < lowest) {
+                lowest = PackedStats.hunger(stats);
+                action = GameAction.FEED;
+            }
+            if (PackedStats.cleanliness(stats) < lowest) {
+                lowest = PackedStats.cleanliness(stats);
+                action = GameAction.WASH;
+            }
+            if (PackedStats.happiness(stats) < lowest) {
+                lowest = PackedStats.happiness(stats);
+                action = GameAction.PLAY;
+            }
+            if (PackedStats.energy(stats) < lowest) {
+                action = GameAction.REST;
+            }
+            return action;
+        };
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.tamagotchiproject.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Потоковый скетч квантилей KLL (Karnin, Lang, Liberty) для длительностей игр.
+// Уровень h хранит элементы с весом 2^h. Когда уровень переполняется, он сортируется и каждый
+// второй элемент (чётные или нечётные позиции - случайно) поднимается уровнем выше, остальные
+// выбрасываются. Ёмкость уровней убывает геометрически сверху вниз, поэтому при k = 128 скетч
+// держит несколько сотен чисел при ошибке ранга около процента. Скетчи можно сливать.
+// Значения неотрицательные (длительности в миллисекундах)
+public class QuantileSketch {
+    public static final int DEFAULT_K = 128;
+
+    private static final int MAGIC = 0x544B4C4C; // "TKLL"
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int LEVEL_BITS = 6;
+    private static final long LEVEL_MASK = (1 << LEVEL_BITS) - 1;
+    private static final long MAX_VALUE = Long.MAX_VALUE >>> LEVEL_BITS;
+
+    private final int k;
+    private final PetRandom random;
+    private long[][] levels = new long[1][];
+    private int[] sizes = new int[1];
+    private int retained;
+    private int maxRetained;
+    private long count;
+
+    public QuantileSketch() {
+        this(DEFAULT_K, 0x4B4C4CL);
+    }
+
+    public QuantileSketch(int k, long seed) {
+        this.k = k;
+        this.random = new Xoroshiro128PlusPlus(seed);
+        levels[0] = new long[capacity(0)];
+        maxRetained = totalCapacity();
+    }
+
+    // Добавление за O(1) амортизированно: сжатие уровня h случается раз в ~capacity(h) * 2^h вставок
+    public void update(long value) {
+        append(0, Math.max(0, Math.min(MAX_VALUE, value)));
+        count++;
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        while (levels.length < other.levels.length) {
+            grow();
+        }
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        count += other.count;
+        while (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    // Приблизительная доля значений строго меньше value, от 0 до 1
+    public double fractionBelow(long value) {
+        if (count == 0) {
+            return 0;
+        }
+        long weight = 0;
+        for (int h = 0; h < levels.length; h++) {
+            long[] items = levels[h];
+            int below = 0;
+            for (int i = 0; i < sizes[h]; i++) {
+                if (items[i] < value) {
+                    below++;
+                }
+            }
+            weight += (long) below << h;
+        }
+        return Math.min(1.0, (double) weight / totalWeight());
+    }
+
+    // Приблизительный квантиль q (от 0 до 1). Уровень элемента упакован в младшие биты,
+    // чтобы отсортировать значения вместе с весами одним массивом long
+    public long quantile(double q) {
+        if (retained == 0) {
+            return 0;
+        }
+        long[] packed = new long[retained];
+        int n = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                packed[n++] = levels[h][i] << LEVEL_BITS | h;
+            }
+        }
+        Arrays.sort(packed);
+        long target = Math.max(1, (long) Math.ceil(q * totalWeight()));
+        long seen = 0;
+        for (int i = 0; i < n; i++) {
+            seen += 1L << (packed[i] & LEVEL_MASK);
+            if (seen >= target) {
+                return packed[i] >>> LEVEL_BITS;
+            }
+        }
+        return packed[n - 1] >>> LEVEL_BITS;
+    }
+
+    public long getCount() { return count; }
+    public int getRetained() { return retained; }
+
+    public int serializedSize() {
+        return 20 + levels.length * 4 + retained * 8;
+    }
+
+    // Заголовок (магическое число, k, число значений, число уровней), затем уровни: размер и элементы
+    public void writeTo(ByteBuffer out) {
+        out.putInt(MAGIC);
+        out.putInt(k);
+        out.putLong(count);
+        out.putInt(levels.length);
+        for (int h = 0; h < levels.length; h++) {
+            out.putInt(sizes[h]);
+            for (int i = 0; i < sizes[h]; i++) {
+                out.putLong(levels[h][i]);
+            }
+        }
+    }
+
+    public static QuantileSketch readFrom(ByteBuffer in) {
+        if (in.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Не скетч квантилей");
+        }
+        QuantileSketch sketch = new QuantileSketch(in.getInt(), 0x4B4C4CL);
+        sketch.count = in.getLong();
+        int levelCount = in.getInt();
+        if (levelCount < 1 || levelCount > LEVEL_MASK) {
+            throw new IllegalArgumentException("Неверное число уровней: " + levelCount);
+        }
+        while (sketch.levels.length < levelCount) {
+            sketch.grow();
+        }
+        for (int h = 0; h < levelCount; h++) {
+            int size = in.getInt();
+            for (int i = 0; i < size; i++) {
+                sketch.append(h, in.getLong());
+            }
+        }
+        return sketch;
+    }
+
+    private void compress() {
+        for (int h = 0; h < levels.length; h++) {
+            if (sizes[h] >= capacity(h)) {
+                if (h + 1 == levels.length) {
+                    grow();
+                }
+                compact(h);
+                if (retained < maxRetained) {
+                    break;
+                }
+            }
+        }
+    }
+
+    // Сортировка уровня и подъём каждого второго элемента; при нечётном размере последний остаётся
+    private void compact(int h) {
+        long[] items = levels[h];
+        int size = sizes[h];
+        Arrays.sort(items, 0, size);
+        int pairs = size / 2;
+        int offset = (int) (random.nextLong() >>> 63);
+        for (int i = 0; i < pairs; i++) {
+            append(h + 1, items[2 * i + offset]);
+        }
+        int kept = size - 2 * pairs;
+        if (kept == 1) {
+            items[0] = items[size - 1];
+        }
+        sizes[h] = kept;
+        retained -= 2 * pairs;
+    }
+
+    private void append(int h, long value) {
+        if (sizes[h] == levels[h].length) {
+            levels[h] = Arrays.copyOf(levels[h], Math.max(2, levels[h].length * 2));
+        }
+        levels[h][sizes[h]++] = value;
+        retained++;
+    }
+
+    private void grow() {
+        int height = levels.length + 1;
+        levels = Arrays.copyOf(levels, height);
+        sizes = Arrays.copyOf(sizes, height);
+        levels[height - 1] = new long[2];
+        maxRetained = totalCapacity();
+    }
+
+    // Нижние уровни короче: ёмкость убывает в 3/2 раза на каждый уровень вниз от верхнего
+    private int capacity(int h) {
+        int depth = levels.length - h - 1;
+        return (int) Math.ceil(Math.pow(CAPACITY_DECAY, depth) * k) + 1;
+    }
+
+    private int totalCapacity() {
+        int total = 0;
+        for (int h = 0; h < levels.length; h++) {
+            total += capacity(h);
+        }
+        return total;
+    }
+
+    private long totalWeight() {
+        long weight = 0;
+        for (int h = 0; h < levels.length; h++) {
+            weight += (long) sizes[h] << h;
+        }
+        return weight;
+    }
+}
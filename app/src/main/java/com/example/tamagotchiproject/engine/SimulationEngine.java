@@ -0,0 +1,267 @@
+package com.example.tamagotchiproject.engine;
+
+// Симуляция одного питомца с фиксированным шагом в одну секунду, без зависимостей от Android
+public class SimulationEngine {
+    public static final long TICK_MILLIS = 1000;
+
+    private final GameClock clock;
+    private PetRandom random;
+    private int gameSpeed;
+    private DifficultySchedule schedule = DifficultySchedule.DEFAULT;
+
+    // Характеристики в упакованном виде, см. PackedStats
+    private int stats = PackedStats.FULL;
+
+    private long elapsedTime;
+    private long lastTickAt;
+    private int decreaseCounter = 0;
+    private int difficultyLevel = 1;
+    private boolean gameOver;
+
+    // Строка DecayTable для текущих уровня сложности и скорости и значения из неё
+    private int decayRow;
+    private int baseDecrease;
+    private int decreaseInterval;
+
+    public SimulationEngine(int gameSpeed, long seed) {
+        this(gameSpeed, seed, GameClock.SYSTEM);
+    }
+
+    public SimulationEngine(int gameSpeed, long seed, GameClock clock) {
+        this(gameSpeed, new Xoroshiro128PlusPlus(seed), clock);
+    }
+
+    public SimulationEngine(int gameSpeed, PetRandom random, GameClock clock) {
+        this.gameSpeed = gameSpeed;
+        this.random = random;
+        this.clock = clock;
+        this.lastTickAt = clock.now();
+        applyDifficulty(1);
+    }
+
+    public void load(int hunger, int happiness, int cleanliness, int energy, long elapsedTime) {
+        load(PackedStats.pack(hunger, happiness, cleanliness, energy), elapsedTime);
+    }
+
+    public void load(int stats, long elapsedTime) {
+        this.stats = stats;
+        this.elapsedTime = elapsedTime;
+        this.decreaseCounter = 0;
+        this.gameOver = false;
+        applyDifficulty(schedule.levelAt(elapsedTime));
+        syncClock();
+    }
+
+    public void reset() {
+        load(PackedStats.FULL, 0);
+    }
+
+    public void reseed(long seed) {
+        random = new Xoroshiro128PlusPlus(seed);
+    }
+
+    // Привязывает отсчёт тиков к текущему моменту (после загрузки или выхода из паузы)
+    public void syncClock() {
+        lastTickAt = clock.now();
+    }
+
+    // Выполняет все целые тики, накопившиеся по часам с прошлого вызова
+    public int advance() {
+        long due = (clock.now() - lastTickAt) / TICK_MILLIS;
+        if (due <= 0) {
+            return 0;
+        }
+        lastTickAt += due * TICK_MILLIS;
+        return tick(due);
+    }
+
+    public boolean tick() {
+        if (gameOver) {
+            return false;
+        }
+
+        elapsedTime += TICK_MILLIS;
+        int level = schedule.levelAt(elapsedTime);
+        if (level != difficultyLevel) {
+            applyDifficulty(level);
+        }
+
+        decreaseCounter++;
+        if (decreaseCounter >= decreaseInterval) {
+            decreaseCounter = 0;
+            decreaseStats();
+        }
+
+        // Действия игрока тоже могут обнулить показатель, поэтому проверяем на каждом тике
+        if (isAnyStatCritical()) {
+            gameOver = true;
+        }
+        return true;
+    }
+
+    // Возвращает количество реально выполненных тиков: симуляция останавливается на конце игры
+    public int tick(long count) {
+        int done = 0;
+        for (long i = 0; i < count && tick(); i++) {
+            done++;
+        }
+        return done;
+    }
+
+    // Сколько миллисекунд по часам осталось до ближайшего тика, на котором что-то изменится:
+    // уменьшение характеристик или смена уровня сложности. Критическое состояние тоже
+    // наступает только на шаге уменьшения, поэтому отдельно его считать не нужно
+    public long millisUntilNextEvent() {
+        long ticks = decreaseInterval - decreaseCounter;
+        long levelChangesAt = schedule.nextTransitionAt(elapsedTime);
+        if (levelChangesAt != Long.MAX_VALUE) {
+            ticks = Math.min(ticks, (levelChangesAt - elapsedTime + TICK_MILLIS - 1) / TICK_MILLIS);
+        }
+        return Math.max(0, lastTickAt + ticks * TICK_MILLIS - clock.now());
+    }
+
+    // Перематывает count тиков сразу, без прохода по каждому. Результат совпадает с tick(count)
+    // по распределению: внутри отрезка с постоянной сложностью детерминированные уменьшения
+    // складываются, а число случайных добавок берётся из биномиального распределения.
+    // Пошагово считаются только шаги, на которых питомец может погибнуть, а их не больше сотни
+    public long fastForward(long count) {
+        long done = 0;
+        int interval = decreaseInterval;
+
+        while (done < count && !gameOver) {
+            // Показатель уже на нуле (после действия или загрузки): как и tick(count),
+            // заканчиваем игру на первом же тике, не перематывая время
+            if (isAnyStatCritical()) {
+                tick();
+                done++;
+                break;
+            }
+            long remaining = count - done;
+            long segmentStart = elapsedTime;
+            long toDecay = interval - decreaseCounter;
+
+            if (remaining < toDecay) {
+                skipIdleTicks(remaining);
+                done += remaining;
+                break;
+            }
+
+            // Отрезок: подряд идущие уменьшения на одном уровне сложности
+            long firstDecayAt = elapsedTime + toDecay * TICK_MILLIS;
+            int level = schedule.levelAt(firstDecayAt);
+            long stepMillis = interval * TICK_MILLIS;
+            long decays = 1 + (remaining - toDecay) / interval;
+            long levelEndsAt = schedule.nextTransitionAt(firstDecayAt);
+            if (levelEndsAt != Long.MAX_VALUE) {
+                decays = Math.min(decays, 1 + (levelEndsAt - 1 - firstDecayAt) / stepMillis);
+            }
+
+            skipIdleTicks(toDecay - 1);
+            if (level != difficultyLevel) {
+                applyDifficulty(level);
+            }
+
+            if (canDieWithin(decays)) {
+                // Шагаем по одному уменьшению, пока питомец жив (не больше 100 шагов)
+                for (long i = 0; i < decays && !gameOver; i++) {
+                    if (i > 0) {
+                        skipIdleTicks(interval - 1);
+                    }
+                    tick();
+                }
+            } else {
+                int n = (int) decays;
+                int decrease = PackedStats.pack(
+                        n * PackedStats.hunger(baseDecrease)
+                                + Binomial.sample(random, n, DecayTable.extraChance(decayRow, 0)),
+                        n * PackedStats.happiness(baseDecrease)
+                                + Binomial.sample(random, n, DecayTable.extraChance(decayRow, 1)),
+                        n * PackedStats.cleanliness(baseDecrease)
+                                + Binomial.sample(random, n, DecayTable.extraChance(decayRow, 2)),
+                        n * PackedStats.energy(baseDecrease)
+                                + Binomial.sample(random, n, DecayTable.extraChance(decayRow, 3)));
+                stats = PackedStats.subtract(stats, decrease);
+                elapsedTime = firstDecayAt + (decays - 1) * stepMillis;
+                decreaseCounter = 0;
+            }
+            done += (elapsedTime - segmentStart) / TICK_MILLIS;
+        }
+        return done;
+    }
+
+    // Тики без уменьшения характеристик: двигается только время
+    private void skipIdleTicks(long ticks) {
+        if (ticks <= 0) {
+            return;
+        }
+        elapsedTime += ticks * TICK_MILLIS;
+        decreaseCounter += (int) ticks;
+        int level = schedule.levelAt(elapsedTime);
+        if (level != difficultyLevel) {
+            applyDifficulty(level);
+        }
+    }
+
+    // Может ли хоть один показатель обнулиться за decays уменьшений при всех случайных добавках
+    private boolean canDieWithin(long decays) {
+        return decays * (PackedStats.hunger(baseDecrease) + 1) >= PackedStats.hunger(stats)
+                || decays * (PackedStats.happiness(baseDecrease) + 1) >= PackedStats.happiness(stats)
+                || decays * (PackedStats.cleanliness(baseDecrease) + 1) >= PackedStats.cleanliness(stats)
+                || decays * (PackedStats.energy(baseDecrease) + 1) >= PackedStats.energy(stats);
+    }
+
+    private void decreaseStats() {
+        // Случайные увеличения как в оригинале, все четыре из одного 64-битного слова
+        stats = DecayTable.decay(stats, decayRow, random.nextLong());
+    }
+
+    private void applyDifficulty(int level) {
+        difficultyLevel = level;
+        decayRow = DecayTable.row(level, gameSpeed);
+        baseDecrease = DecayTable.decrease(decayRow);
+        decreaseInterval = DecayTable.interval(decayRow);
+    }
+
+    public void apply(int action) { stats = GameAction.apply(stats, action); }
+    public void apply(ActionBatch batch) { stats = batch.applyTo(stats); }
+
+    public void feed() { stats = PackedStats.feed(stats); }
+    public void wash() { stats = PackedStats.wash(stats); }
+    public void play() { stats = PackedStats.play(stats); }
+    public void rest() { stats = PackedStats.rest(stats); }
+
+    public boolean isAnyStatCritical() {
+        return PackedStats.isAnyStatCritical(stats);
+    }
+
+    public boolean isAnyStatLow() {
+        return PackedStats.isAnyStatLow(stats);
+    }
+
+    public PetRandom getRandom() { return random; }
+    public GameClock getClock() { return clock; }
+
+    public int getGameSpeed() { return gameSpeed; }
+    public DifficultySchedule getDifficultySchedule() { return schedule; }
+
+    public void setDifficultySchedule(DifficultySchedule schedule) {
+        this.schedule = schedule;
+        applyDifficulty(schedule.levelAt(elapsedTime));
+    }
+
+    public void setGameSpeed(int gameSpeed) {
+        this.gameSpeed = gameSpeed;
+        applyDifficulty(difficultyLevel);
+    }
+
+    public int getStats() { return stats; }
+
+    public int getHunger() { return PackedStats.hunger(stats); }
+    public int getHappiness() { return PackedStats.happiness(stats); }
+    public int getCleanliness() { return PackedStats.cleanliness(stats); }
+    public int getEnergy() { return PackedStats.energy(stats); }
+
+    public long getElapsedTime() { return elapsedTime; }
+    public int getDifficultyLevel() { return difficultyLevel; }
+    public boolean isGameOver() { return gameOver; }
+}
@@ -0,0 +1,256 @@
+package com.example.tamagotchiproject.engine;
+
+// Запись характеристик и уровня сложности за сессию в сжатом виде, в кольце блоков фиксированного
+// размера поверх одного массива байт. Каждый блок начинается с ключевого кадра: время в секундах
+// (varint) и пять значений как есть. Дальше идут только изменения: прирост времени (varint),
+// маска изменившихся полей (байт) и для каждого из них разность с прошлым значением в zig-zag varint.
+// Одинаковые подряд значения не пишутся совсем: между записями значения не менялись.
+// Когда кольцо заполнено, новый блок затирает самый старый. Запись не выделяет объектов
+public class StatTimeSeries {
+    public interface Visitor {
+        void onSample(long elapsedSeconds, int stats, int difficultyLevel);
+    }
+
+    public static final int DEFAULT_BLOCKS = 64;
+    public static final int DEFAULT_BLOCK_BYTES = 512;
+
+    private static final int FIELDS = 5;
+    // Ключевой кадр: время (до 10 байт) и пять байт значений
+    private static final int MAX_KEYFRAME_BYTES = 10 + FIELDS;
+    // Изменение: время (до 10 байт), маска и до пяти разностей по 2 байта
+    private static final int MAX_SAMPLE_BYTES = 10 + 1 + FIELDS * 2;
+
+    private final byte[] data;
+    private final int blockBytes;
+    private final int blocks;
+    private final long[] blockStart;
+    private final int[] blockLength;
+    private int firstBlock;
+    private int blockCount;
+
+    // Последнее записанное состояние
+    private final int[] last = new int[FIELDS];
+    private long lastTime;
+    private int sampleCount;
+
+    // Состояние декодера, чтобы чтение тоже обходилось без выделений
+    private final int[] decoded = new int[FIELDS];
+    private long decodedTime;
+    private int cursor;
+    private final int[] pending = new int[FIELDS];
+    private long pendingTime;
+
+    public StatTimeSeries() {
+        this(DEFAULT_BLOCKS, DEFAULT_BLOCK_BYTES);
+    }
+
+    public StatTimeSeries(int blocks, int blockBytes) {
+        if (blocks < 2 || blockBytes < MAX_KEYFRAME_BYTES + MAX_SAMPLE_BYTES) {
+            throw new IllegalArgumentException("Слишком маленькое кольцо: " + blocks + " x " + blockBytes);
+        }
+        this.blocks = blocks;
+        this.blockBytes = blockBytes;
+        this.data = new byte[blocks * blockBytes];
+        this.blockStart = new long[blocks];
+        this.blockLength = new int[blocks];
+    }
+
+    public synchronized void append(long elapsedMillis, int stats, int difficultyLevel) {
+        long time = Math.max(lastTime, elapsedMillis / 1000);
+        if (blockCount > 0) {
+            int changed = 0;
+            for (int i = 0; i < FIELDS; i++) {
+                if (field(stats, difficultyLevel, i) != last[i]) {
+                    changed |= 1 << i;
+                }
+            }
+            if (changed == 0) {
+                return;
+            }
+            int block = physical(blockCount - 1);
+            if (blockLength[block] + MAX_SAMPLE_BYTES <= blockBytes) {
+                int at = block * blockBytes + blockLength[block];
+                at = writeVarint(at, time - lastTime);
+                data[at++] = (byte) changed;
+                for (int i = 0; i < FIELDS; i++) {
+                    if ((changed & (1 << i)) != 0) {
+                        int value = field(stats, difficultyLevel, i);
+                        at = writeVarint(at, zigZag(value - last[i]));
+                        last[i] = value;
+                    }
+                }
+                blockLength[block] = at - block * blockBytes;
+                lastTime = time;
+                sampleCount++;
+                return;
+            }
+        }
+        startBlock(time, stats, difficultyLevel);
+    }
+
+    // Новый блок с ключевым кадром; при полном кольце вытесняет самый старый
+    private void startBlock(long time, int stats, int difficultyLevel) {
+        if (blockCount == blocks) {
+            firstBlock = (firstBlock + 1) % blocks;
+            blockCount--;
+        }
+        int block = physical(blockCount);
+        blockCount++;
+        int at = writeVarint(block * blockBytes, time);
+        for (int i = 0; i < FIELDS; i++) {
+            last[i] = field(stats, difficultyLevel, i);
+            data[at++] = (byte) last[i];
+        }
+        blockStart[block] = time;
+        blockLength[block] = at - block * blockBytes;
+        lastTime = time;
+        sampleCount++;
+    }
+
+    // Потоковое чтение записей со временем от fromSeconds до toSeconds включительно. Первой приходит
+    // последняя запись до fromSeconds (если она ещё в кольце), чтобы было известно начальное состояние
+    public synchronized void query(long fromSeconds, long toSeconds, Visitor visitor) {
+        if (blockCount == 0 || toSeconds < fromSeconds) {
+            return;
+        }
+        // Последний блок, начавшийся не позже fromSeconds; блоки в кольце упорядочены по времени
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (blockStart[physical(mid)] <= fromSeconds) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        // Состояние до начала диапазона отдаём, только когда стало ясно, что оно последнее перед ним
+        boolean haveBefore = false;
+        for (int logical = low; logical < blockCount; logical++) {
+            int block = physical(logical);
+            int end = block * blockBytes + blockLength[block];
+            readKeyframe(block);
+            while (true) {
+                if (decodedTime > toSeconds) {
+                    break;
+                }
+                if (decodedTime < fromSeconds) {
+                    haveBefore = true;
+                    pendingTime = decodedTime;
+                    System.arraycopy(decoded, 0, pending, 0, FIELDS);
+                } else {
+                    if (haveBefore && decodedTime > fromSeconds) {
+                        emit(visitor, pendingTime, pending);
+                    }
+                    haveBefore = false;
+                    emit(visitor, decodedTime, decoded);
+                }
+                if (cursor >= end) {
+                    break;
+                }
+                readSample();
+            }
+            if (decodedTime > toSeconds) {
+                break;
+            }
+        }
+        if (haveBefore) {
+            emit(visitor, pendingTime, pending);
+        }
+    }
+
+    private static void emit(Visitor visitor, long time, int[] values) {
+        visitor.onSample(time, PackedStats.pack(values[0], values[1], values[2], values[3]), values[4]);
+    }
+
+    private void readKeyframe(int block) {
+        cursor = block * blockBytes;
+        decodedTime = readVarint();
+        for (int i = 0; i < FIELDS; i++) {
+            decoded[i] = data[cursor++] & 0xFF;
+        }
+    }
+
+    private void readSample() {
+        decodedTime += readVarint();
+        int changed = data[cursor++];
+        for (int i = 0; i < FIELDS; i++) {
+            if ((changed & (1 << i)) != 0) {
+                decoded[i] += unZigZag(readVarint());
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        firstBlock = 0;
+        blockCount = 0;
+        sampleCount = 0;
+        lastTime = 0;
+    }
+
+    public synchronized int getSampleCount() { return sampleCount; }
+    public synchronized long getLastTime() { return lastTime; }
+
+    public synchronized long getFirstTime() {
+        return blockCount == 0 ? 0 : blockStart[firstBlock];
+    }
+
+    // Сколько байт сейчас занято записями
+    public synchronized int getUsedBytes() {
+        int used = 0;
+        for (int i = 0; i < blockCount; i++) {
+            used += blockLength[physical(i)];
+        }
+        return used;
+    }
+
+    public int getCapacityBytes() {
+        return data.length;
+    }
+
+    private int physical(int logical) {
+        return (firstBlock + logical) % blocks;
+    }
+
+    private static int field(int stats, int difficultyLevel, int i) {
+        switch (i) {
+            case 0: return PackedStats.hunger(stats);
+            case 1: return PackedStats.happiness(stats);
+            case 2: return PackedStats.cleanliness(stats);
+            case 3: return PackedStats.energy(stats);
+            default: return difficultyLevel;
+        }
+    }
+
+    private static long zigZag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static int unZigZag(long encoded) {
+        int value = (int) encoded;
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int writeVarint(int at, long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[at++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[at++] = (byte) value;
+        return at;
+    }
+
+    private long readVarint() {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = data[cursor++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.tamagotchiproject.engine;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Иерархическое колесо таймеров: один поток на всё приложение вместо пары java.util.Timer
+// на каждую игру. Четыре уровня по 64 ячейки; постановка и отмена таймера - O(1),
+// а сам таймер (Timeout) переиспользуется, так что на питомца приходится один объект.
+// Пока ближайшие ячейки пусты, поток спит, а не просыпается на каждом делении
+public class TimingWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    public static final long DEFAULT_TICK_MILLIS = 50;
+
+    private static TimingWheel shared;
+
+    private final Object lock = new Object();
+    private final GameClock clock;
+    private final long tickMillis;
+    private final long startTime;
+
+    private final Timeout[][] slots = new Timeout[LEVELS][SLOTS];
+    // Бит i выставлен, если в ячейке i уровня есть таймеры
+    private final long[] occupied = new long[LEVELS];
+
+    private long currentTick;
+    private int scheduledCount;
+
+    // Таймеры, срабатывающие на текущем делении; выполняются вне блокировки
+    private Timeout[] firing = new Timeout[16];
+    private long[] firingGenerations = new long[16];
+
+    public static synchronized TimingWheel shared() {
+        if (shared == null) {
+            shared = new TimingWheel(DEFAULT_TICK_MILLIS, GameClock.SYSTEM);
+            shared.start("game-timing-wheel");
+        }
+        return shared;
+    }
+
+    public TimingWheel(long tickMillis, GameClock clock) {
+        this.tickMillis = tickMillis;
+        this.clock = clock;
+        this.startTime = clock.now();
+    }
+
+    public Timeout newTimeout(Runnable task) {
+        return new Timeout(this, task);
+    }
+
+    public void start(String threadName) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void loop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                synchronized (lock) {
+                    long wait = millisUntilNextWorkLocked();
+                    if (wait > 0) {
+                        lock.wait(wait == Long.MAX_VALUE ? 0 : wait);
+                    }
+                }
+                advance();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // Ошибка одного таймера не должна останавливать остальные игры
+                Logger.getLogger("TimingWheel").log(Level.SEVERE, "Timeout task failed", e);
+            }
+        }
+    }
+
+    // Выполняет все таймеры, чьё время по часам уже наступило. Возвращает число сработавших
+    public int advance() {
+        int count;
+        synchronized (lock) {
+            long targetTick = (clock.now() - startTime) / tickMillis;
+            count = 0;
+            while (currentTick < targetTick) {
+                currentTick++;
+                if ((currentTick & SLOT_MASK) == 0) {
+                    cascade(1);
+                }
+                count = collect(count, (int) (currentTick & SLOT_MASK));
+            }
+        }
+
+        int fired = 0;
+        for (int i = 0; i < count; i++) {
+            Timeout timeout = firing[i];
+            firing[i] = null;
+            if (timeout.claim(firingGenerations[i])) {
+                timeout.task.run();
+                fired++;
+            }
+        }
+        return fired;
+    }
+
+    private void cascade(int level) {
+        if (level >= LEVELS) {
+            return;
+        }
+        int index = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        if (index == 0) {
+            cascade(level + 1);
+        }
+        Timeout node = slots[level][index];
+        slots[level][index] = null;
+        occupied[level] &= ~(1L << index);
+        while (node != null) {
+            Timeout next = node.next;
+            node.prev = null;
+            node.next = null;
+            insert(node);
+            node = next;
+        }
+    }
+
+    private int collect(int count, int index) {
+        Timeout node = slots[0][index];
+        if (node == null) {
+            return count;
+        }
+        slots[0][index] = null;
+        occupied[0] &= ~(1L << index);
+        while (node != null) {
+            Timeout next = node.next;
+            node.prev = null;
+            node.next = null;
+            node.level = -1;
+            scheduledCount--;
+            if (count == firing.length) {
+                firing = java.util.Arrays.copyOf(firing, count * 2);
+                firingGenerations = java.util.Arrays.copyOf(firingGenerations, count * 2);
+            }
+            firing[count] = node;
+            firingGenerations[count] = node.generation;
+            count++;
+            node = next;
+        }
+        return count;
+    }
+
+    // При каскаде delta может быть нулевой: такая ячейка первого уровня собирается сразу после каскада
+    private void insert(Timeout node) {
+        long delta = Math.max(0, node.deadlineTick - currentTick);
+        if (delta >= MAX_SPAN) {
+            // Дальше последнего уровня: кладём в самую дальнюю ячейку, оттуда таймер спустится сам
+            delta = MAX_SPAN - 1;
+        }
+
+        int level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        long slotTick = currentTick + delta;
+        int index = (int) ((slotTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        Timeout head = slots[level][index];
+        node.next = head;
+        node.prev = null;
+        if (head != null) {
+            head.prev = node;
+        }
+        slots[level][index] = node;
+        node.level = level;
+        node.index = index;
+        occupied[level] |= 1L << index;
+    }
+
+    private void unlink(Timeout node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            slots[node.level][node.index] = node.next;
+            if (node.next == null) {
+                occupied[node.level] &= ~(1L << node.index);
+            }
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.level = -1;
+        scheduledCount--;
+    }
+
+    // Сколько можно спать: до ближайшей занятой ячейки (срабатывание или каскад),
+    // пустые деления и пустые каскады между ними пропускаются
+    long millisUntilNextWork() {
+        synchronized (lock) {
+            return millisUntilNextWorkLocked();
+        }
+    }
+
+    private long millisUntilNextWorkLocked() {
+        if (scheduledCount == 0) {
+            return Long.MAX_VALUE;
+        }
+        long wakeAt = startTime + (currentTick + ticksUntilNextWork()) * tickMillis;
+        return Math.max(0, wakeAt - clock.now());
+    }
+
+    private long ticksUntilNextWork() {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * level;
+            long block = currentTick >>> shift;
+            int position = (int) (block & SLOT_MASK);
+            long ahead = position == SLOT_MASK ? 0 : occupied[level] >>> (position + 1);
+            if (ahead != 0) {
+                return ((block + Long.numberOfTrailingZeros(ahead) + 1) << shift) - currentTick;
+            }
+            if (occupied[level] != 0) {
+                // Остались ячейки за оборотом уровня: раньше следующего оборота ничего не случится
+                return (((currentTick >>> (shift + SLOT_BITS)) + 1) << (shift + SLOT_BITS)) - currentTick;
+            }
+        }
+        return SLOTS;
+    }
+
+    private void schedule(Timeout node, long delayMillis) {
+        synchronized (lock) {
+            if (node.level >= 0) {
+                unlink(node);
+            }
+            node.generation++;
+            long deadline = clock.now() - startTime + Math.max(0, delayMillis);
+            // Текущее деление уже обработано, поэтому самое раннее - следующее
+            node.deadlineTick = Math.max(currentTick + 1, (deadline + tickMillis - 1) / tickMillis);
+            insert(node);
+            scheduledCount++;
+            lock.notify();
+        }
+    }
+
+    private void cancel(Timeout node) {
+        synchronized (lock) {
+            node.generation++;
+            if (node.level >= 0) {
+                unlink(node);
+            }
+        }
+    }
+
+    public int getScheduledCount() {
+        synchronized (lock) {
+            return scheduledCount;
+        }
+    }
+
+    // Переиспользуемый таймер: schedule() переставляет его, не выделяя память
+    public static final class Timeout {
+        private final TimingWheel wheel;
+        private final Runnable task;
+
+        private Timeout prev;
+        private Timeout next;
+        private int level = -1;
+        private int index;
+        private long deadlineTick;
+        // Меняется при каждой постановке и отмене, чтобы устаревшее срабатывание не выполнилось
+        private long generation;
+
+        private Timeout(TimingWheel wheel, Runnable task) {
+            this.wheel = wheel;
+            this.task = task;
+        }
+
+        public void schedule(long delayMillis) {
+            wheel.schedule(this, delayMillis);
+        }
+
+        public void cancel() {
+            wheel.cancel(this);
+        }
+
+        public boolean isPending() {
+            synchronized (wheel.lock) {
+                return level >= 0;
+            }
+        }
+
+        private boolean claim(long expectedGeneration) {
+            synchronized (wheel.lock) {
+                return generation == expectedGeneration && level < 0;
+            }
+        }
+    }
+}
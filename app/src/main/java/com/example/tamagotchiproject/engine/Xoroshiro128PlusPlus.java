@@ -0,0 +1,46 @@
+package com.example.tamagotchiproject.engine;
+
+// Генератор xoroshiro128++: два long состояния, без синхронизации, период 2^128 - 1
+public final class Xoroshiro128PlusPlus implements PetRandom {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long s0;
+    private long s1;
+
+    // Состояние разворачивается из зерна через SplitMix64, поэтому близкие зёрна дают разные потоки
+    public Xoroshiro128PlusPlus(long seed) {
+        long z = seed;
+        s0 = mix64(z += GOLDEN_GAMMA);
+        s1 = mix64(z + GOLDEN_GAMMA);
+        if ((s0 | s1) == 0) {
+            s1 = GOLDEN_GAMMA;
+        }
+    }
+
+    @Override
+    public long nextLong() {
+        long a = s0;
+        long b = s1;
+        long result = Long.rotateLeft(a + b, 17) + a;
+        b ^= a;
+        s0 = Long.rotateLeft(a, 49) ^ b ^ (b << 21);
+        s1 = Long.rotateLeft(b, 28);
+        return result;
+    }
+
+    @Override
+    public PetRandom split() {
+        return new Xoroshiro128PlusPlus(nextLong());
+    }
+
+    @Override
+    public long deriveSeed() {
+        return mix64(s0 ^ mix64(s1 + GOLDEN_GAMMA));
+    }
+
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
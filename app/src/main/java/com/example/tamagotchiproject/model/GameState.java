@@ -1,6 +1,12 @@
 package com.example.tamagotchiproject.model;
 
+import com.example.tamagotchiproject.engine.DifficultySchedule;
+import com.example.tamagotchiproject.engine.GameClock;
+
+import java.util.SplittableRandom;
+
 public class GameState {
+    private final GameClock clock;
     private PetStats petStats;
     private GameSettings gameSettings;
     private long startTime;
@@ -9,14 +15,24 @@ public class GameState {
     private boolean isGameOver;
     private boolean isNewGame;
     private int difficultyLevel = 1;
+    // Кривая сложности выбранного персонажа
+    private DifficultySchedule difficultySchedule = DifficultySchedule.DEFAULT;
+    // Зерно генератора случайных чисел игры: с тем же зерном прогон повторяется бит в бит
+    private long rngSeed;
 
     public GameState() {
+        this(GameClock.SYSTEM);
+    }
+
+    public GameState(GameClock clock) {
+        this.clock = clock;
         this.petStats = new PetStats(100, 100, 100, 100);
         this.gameSettings = new GameSettings();
-        this.startTime = System.currentTimeMillis();
+        this.startTime = clock.now();
         this.isPaused = false;
         this.isGameOver = false;
         this.isNewGame = true;
+        this.rngSeed = new SplittableRandom().nextLong();
     }
 
     public void updateElapsedTime() {
@@ -24,44 +40,33 @@ public class GameState {
     }
 
     public void updateDifficultyLevel() {
-        long minutes = getElapsedTime() / 60000;
-
-        if (minutes < 1) {
-            difficultyLevel = 1;
-        } else if (minutes < 2) {
-            difficultyLevel = 2;
-        } else if (minutes < 5) {
-            difficultyLevel = 3;
-        } else if (minutes < 10) {
-            difficultyLevel = 4;
-        } else {
-            difficultyLevel = 5;
-        }
+        difficultyLevel = difficultySchedule.levelAt(getElapsedTime());
     }
 
     public void pauseGame() {
         if (!isPaused) {
             isPaused = true;
-            pausedTime = System.currentTimeMillis();
+            pausedTime = clock.now();
         }
     }
 
     public void resumeGame() {
         if (isPaused) {
-            long pauseDuration = System.currentTimeMillis() - pausedTime;
+            long pauseDuration = clock.now() - pausedTime;
             startTime += pauseDuration; // Корректируем startTime на время паузы
             isPaused = false;
         }
     }
 
     public void resetGame() {
-        petStats.reset();
-        startTime = System.currentTimeMillis();
+        petStats = new PetStats();
+        startTime = clock.now();
         gameSettings.setElapsedTime(0);
         isGameOver = false;
         isPaused = false;
         isNewGame = true;
         difficultyLevel = 1;
+        rngSeed = new SplittableRandom().nextLong();
     }
 
     // Новый метод для установки startTime при загрузке
@@ -87,11 +92,17 @@ public class GameState {
 
     public int getDifficultyLevel() { return difficultyLevel; }
 
+    public DifficultySchedule getDifficultySchedule() { return difficultySchedule; }
+    public void setDifficultySchedule(DifficultySchedule difficultySchedule) { this.difficultySchedule = difficultySchedule; }
+
+    public long getRngSeed() { return rngSeed; }
+    public void setRngSeed(long rngSeed) { this.rngSeed = rngSeed; }
+
     public long getElapsedTime() {
         if (isPaused) {
             return pausedTime - startTime;
         } else {
-            return System.currentTimeMillis() - startTime;
+            return clock.now() - startTime;
         }
     }
 
@@ -1,95 +1,66 @@
 package com.example.tamagotchiproject.model;
 
-public class PetStats {
-    private int hunger;
-    private int happiness;
-    private int cleanliness;
-    private int energy;
+import com.example.tamagotchiproject.engine.DecayTable;
+import com.example.tamagotchiproject.engine.PackedStats;
+import com.example.tamagotchiproject.engine.PetRandom;
+
+// Неизменяемый снимок характеристик: все четыре значения упакованы в один int (см. PackedStats)
+public final class PetStats {
+    private final int packed;
 
     public PetStats() {
-        this(100, 100, 100, 100);
+        this(PackedStats.FULL);
     }
 
     public PetStats(int hunger, int happiness, int cleanliness, int energy) {
-        setHunger(hunger);
-        setHappiness(happiness);
-        setCleanliness(cleanliness);
-        setEnergy(energy);
+        this(PackedStats.pack(hunger, happiness, cleanliness, energy));
     }
 
-    public int getHunger() { return hunger; }
-    public void setHunger(int hunger) {
-        this.hunger = Math.max(0, Math.min(100, hunger));
+    private PetStats(int packed) {
+        this.packed = packed;
     }
 
-    public int getHappiness() { return happiness; }
-    public void setHappiness(int happiness) {
-        this.happiness = Math.max(0, Math.min(100, happiness));
+    public static PetStats fromPacked(int packed) {
+        return new PetStats(packed);
     }
 
-    public int getCleanliness() { return cleanliness; }
-    public void setCleanliness(int cleanliness) {
-        this.cleanliness = Math.max(0, Math.min(100, cleanliness));
-    }
+    public int getPacked() { return packed; }
 
-    public int getEnergy() { return energy; }
-    public void setEnergy(int energy) {
-        this.energy = Math.max(0, Math.min(100, energy));
-    }
+    public int getHunger() { return PackedStats.hunger(packed); }
+    public int getHappiness() { return PackedStats.happiness(packed); }
+    public int getCleanliness() { return PackedStats.cleanliness(packed); }
+    public int getEnergy() { return PackedStats.energy(packed); }
 
     public boolean isAnyStatCritical() {
-        return hunger <= 0 || happiness <= 0 || cleanliness <= 0 || energy <= 0;
+        return PackedStats.isAnyStatCritical(packed);
     }
 
     public boolean isAnyStatLow() {
-        return hunger < 40 || happiness < 40 || cleanliness < 40 || energy < 40;
+        return PackedStats.isAnyStatLow(packed);
     }
 
-    public void decreaseStats(int difficultyLevel, int gameSpeed) {
-        float HUNGER_DECREASE_RATE = 1.2f;
-        float HAPPINESS_DECREASE_RATE = 1.0f;
-        float CLEANLINESS_DECREASE_RATE = 0.8f;
-        float ENERGY_DECREASE_RATE = 0.9f;
-
-        // Для быстрого режима уменьшаем в 30 раз чаще
-        int speedMultiplier = (gameSpeed == 1) ? 30 : 1;
-
-        hunger = Math.max(0, hunger - (int)(difficultyLevel * HUNGER_DECREASE_RATE / speedMultiplier));
-        happiness = Math.max(0, happiness - (int)(difficultyLevel * HAPPINESS_DECREASE_RATE / speedMultiplier));
-        cleanliness = Math.max(0, cleanliness - (int)(difficultyLevel * CLEANLINESS_DECREASE_RATE / speedMultiplier));
-        energy = Math.max(0, energy - (int)(difficultyLevel * ENERGY_DECREASE_RATE / speedMultiplier));
-
-        // Случайные увеличения уменьшения
-        if (Math.random() > 0.7) hunger = Math.max(0, hunger - 1);
-        if (Math.random() > 0.7) happiness = Math.max(0, happiness - 1);
-        if (Math.random() > 0.5) cleanliness = Math.max(0, cleanliness - 1);
-        if (Math.random() > 0.6) energy = Math.max(0, energy - 1);
-    }
-
-    public void feed() {
-        setHunger(hunger + 20);
-        setEnergy(energy + 5);
+    // Один шаг уменьшения по той же таблице, что и у SimulationEngine
+    public PetStats decreaseStats(int difficultyLevel, int gameSpeed, PetRandom random) {
+        int row = DecayTable.row(difficultyLevel, gameSpeed);
+        return with(DecayTable.decay(packed, row, random.nextLong()));
     }
 
-    public void wash() {
-        setCleanliness(cleanliness + 25);
-        setHappiness(happiness + 5);
-    }
+    public PetStats feed() { return with(PackedStats.feed(packed)); }
+    public PetStats wash() { return with(PackedStats.wash(packed)); }
+    public PetStats play() { return with(PackedStats.play(packed)); }
+    public PetStats rest() { return with(PackedStats.rest(packed)); }
 
-    public void play() {
-        setHappiness(happiness + 20);
-        setEnergy(energy - 10);
+    private PetStats with(int newPacked) {
+        return newPacked == packed ? this : new PetStats(newPacked);
     }
 
-    public void rest() {
-        setEnergy(energy + 30);
-        setHunger(hunger - 5);
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PetStats && ((PetStats) o).packed == packed;
     }
 
-    public void reset() {
-        setHunger(100);
-        setHappiness(100);
-        setCleanliness(100);
-        setEnergy(100);
+    @Override
+    public int hashCode() {
+        return packed;
     }
-}
\ No newline at end of file
+}
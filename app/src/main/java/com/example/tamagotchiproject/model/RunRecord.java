@@ -0,0 +1,56 @@
+package com.example.tamagotchiproject.model;
+
+import com.example.tamagotchiproject.engine.GameAction;
+import com.example.tamagotchiproject.engine.PackedStats;
+
+// Одна законченная игра в истории забегов
+public class RunRecord {
+    // Причина конца игры - биты обнулившихся характеристик
+    public static final int CAUSE_HUNGER = 1;
+    public static final int CAUSE_HAPPINESS = 1 << 1;
+    public static final int CAUSE_CLEANLINESS = 1 << 2;
+    public static final int CAUSE_ENERGY = 1 << 3;
+
+    private final long finishedAt;
+    private final long duration;
+    private final String petName;
+    private final int character;
+    private final int gameSpeed;
+    private final int cause;
+    // Счётчики по кодам GameAction: FEED, WASH, PLAY, REST
+    private final int[] actionCounts;
+
+    public RunRecord(long finishedAt, long duration, String petName, int character, int gameSpeed,
+                     int cause, int[] actionCounts) {
+        this.finishedAt = finishedAt;
+        this.duration = duration;
+        this.petName = petName == null ? "" : petName;
+        this.character = character;
+        this.gameSpeed = gameSpeed;
+        this.cause = cause;
+        this.actionCounts = new int[GameAction.REST + 1];
+        if (actionCounts != null) {
+            System.arraycopy(actionCounts, 0, this.actionCounts, 0, Math.min(actionCounts.length, this.actionCounts.length));
+        }
+    }
+
+    public static int causeOf(int stats) {
+        int cause = 0;
+        if (PackedStats.hunger(stats) == 0) cause |= CAUSE_HUNGER;
+        if (PackedStats.happiness(stats) == 0) cause |= CAUSE_HAPPINESS;
+        if (PackedStats.cleanliness(stats) == 0) cause |= CAUSE_CLEANLINESS;
+        if (PackedStats.energy(stats) == 0) cause |= CAUSE_ENERGY;
+        return cause;
+    }
+
+    public long getFinishedAt() { return finishedAt; }
+    public long getDuration() { return duration; }
+    public String getPetName() { return petName; }
+    public int getCharacter() { return character; }
+    public int getGameSpeed() { return gameSpeed; }
+    public int getCause() { return cause; }
+
+    public int getActionCount(int action) {
+        return action > GameAction.NONE && action < actionCounts.length ? actionCounts[action] : 0;
+    }
+}
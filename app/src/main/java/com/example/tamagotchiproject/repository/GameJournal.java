@@ -0,0 +1,230 @@
+package com.example.tamagotchiproject.repository;
+
+import com.example.tamagotchiproject.engine.GameActor;
+import com.example.tamagotchiproject.engine.GameClock;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Журнал событий игры только на дозапись, отображённый в память через FileChannel.map.
+// Каждое действие и каждый шаг уменьшения - запись фиксированной длины; запись идёт прямо
+// в отображённые страницы, поэтому при убийстве процесса между сохранениями ничего не теряется.
+// Формат записи (16 байт): время по часам (long), характеристики после события (int, см. PackedStats)
+// и служебное слово: тип (4 бита), подробность (4 бита), прошедшее время игры в секундах (24 бита).
+// Служебное слово пишется последним и не бывает нулевым, поэтому нулевое означает конец журнала.
+// Когда журнал заполнен на три четверти, состояние последней записи уходит на сохранение в фоне,
+// а записи продолжают ложиться в оставшееся место; сохранённые записи стираются, только когда снимок на диске
+public class GameJournal implements GameActor.Journal, Closeable {
+    public interface Checkpointer {
+        // Сохранить состояние последней записи и сообщить в done, удалось ли записать его на диск
+        void checkpoint(int stats, long elapsedTime, long timestamp, Completion done);
+    }
+
+    public interface Completion {
+        void onComplete(boolean saved);
+    }
+
+    public interface Visitor {
+        void onRecord(long timestamp, int type, int detail, int stats, long elapsedTime);
+    }
+
+    public static final int RECORD_BYTES = 16;
+    private static final int HEADER_BYTES = 16;
+    private static final int MAGIC = 0x544A524E; // "TJRN"
+    private static final int FORMAT_VERSION = 1;
+    private static final long MAX_ELAPSED_SECONDS = (1 << 24) - 1;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final GameClock clock;
+    private final int capacity;
+    private final int compactAt;
+    private Checkpointer checkpointer;
+
+    private int count;
+    // Последняя запись, чтобы при переполнении сохранить её без чтения файла
+    private long lastTimestamp;
+    private int lastStats;
+    private long lastElapsed;
+    // Сколько первых записей отдано на сохранение, которое ещё не на диске (0 - ничего не ждём)
+    private int checkpointed;
+    // Меняется при очистке, чтобы опоздавшее подтверждение не стёрло новые записи
+    private int generation;
+
+    public GameJournal(File path, int capacity, GameClock clock) throws IOException {
+        this.capacity = capacity;
+        this.compactAt = capacity - Math.max(1, capacity / 4);
+        this.clock = clock;
+        this.file = new RandomAccessFile(path, "rw");
+        long size = HEADER_BYTES + (long) capacity * RECORD_BYTES;
+        this.buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION || buffer.getInt(8) != capacity) {
+            format();
+        }
+        count = 0;
+        while (count < capacity && buffer.getInt(offset(count) + 12) != 0) {
+            rememberLast(count);
+            count++;
+        }
+    }
+
+    public synchronized void setCheckpointer(Checkpointer checkpointer) {
+        this.checkpointer = checkpointer;
+    }
+
+    // Дозапись: несколько абсолютных put в отображённую память, без выделения объектов
+    @Override
+    public synchronized void record(int type, int detail, int stats, long elapsedTime) {
+        if (count == capacity) {
+            // Места нет, а сохранение ещё пишется: для догона нужна только последняя запись, её и заменяем
+            count--;
+            checkpointed = Math.min(checkpointed, count);
+        }
+        long now = clock.now();
+        long seconds = Math.min(MAX_ELAPSED_SECONDS, elapsedTime / 1000);
+        int at = offset(count);
+        buffer.putLong(at, now);
+        buffer.putInt(at + 8, stats);
+        buffer.putInt(at + 12, (type & 0xF) << 28 | (detail & 0xF) << 24 | (int) seconds);
+        count++;
+
+        lastTimestamp = now;
+        lastStats = stats;
+        lastElapsed = seconds * 1000;
+
+        if (count >= compactAt) {
+            compact();
+        }
+    }
+
+    // Снимок последнего состояния отдаётся Checkpointer; записи до него стираются, когда он сохранён.
+    // Без Checkpointer журнал просто очищается
+    public synchronized void compact() {
+        if (checkpointed != 0 || count == 0) {
+            return;
+        }
+        if (checkpointer == null) {
+            truncate();
+            return;
+        }
+        checkpointed = count;
+        final int expected = generation;
+        checkpointer.checkpoint(lastStats, lastElapsed, lastTimestamp, new Completion() {
+            @Override
+            public void onComplete(boolean saved) {
+                finishCheckpoint(expected, saved);
+            }
+        });
+    }
+
+    // При ошибке записи записи остаются, а следующая дозапись снова попробует сохранить снимок
+    private synchronized void finishCheckpoint(int expected, boolean saved) {
+        if (expected != generation || checkpointed == 0) {
+            return;
+        }
+        if (saved) {
+            dropCheckpointed();
+        } else {
+            checkpointed = 0;
+        }
+    }
+
+    // Записи, сделанные после снимка, переносятся в начало по возрастанию: источник всегда дальше
+    // приёмника, поэтому при обрыве последней в журнале остаётся настоящая последняя запись.
+    // Освободившийся хвост стирается с начала, и чтение остановится сразу за перенесёнными
+    private void dropCheckpointed() {
+        int kept = count - checkpointed;
+        for (int i = 0; i < kept; i++) {
+            int from = offset(checkpointed + i);
+            int to = offset(i);
+            buffer.putLong(to, buffer.getLong(from));
+            buffer.putInt(to + 8, buffer.getInt(from + 8));
+            buffer.putInt(to + 12, buffer.getInt(from + 12));
+        }
+        for (int i = kept; i < count; i++) {
+            buffer.putInt(offset(i) + 12, 0);
+        }
+        count = kept;
+        checkpointed = 0;
+    }
+
+    // Очистка, которая ждёт записи сохранения (сброс игры): записи, сделанные до этого вызова,
+    // стираются, когда done получит true, а сделанные позже остаются. Пока сохранение не на диске,
+    // в журнале лежат и старые записи, и новые, а при чтении побеждает последняя - уже новой игры.
+    // Ожидаемое подтверждение прежнего снимка больше не нужно: сохранение сброса его заменяет
+    public synchronized Completion truncateWhenSaved() {
+        generation++;
+        checkpointed = count;
+        final int expected = generation;
+        return new Completion() {
+            @Override
+            public void onComplete(boolean saved) {
+                finishCheckpoint(expected, saved);
+            }
+        };
+    }
+
+    // Стираем с конца: если процесс убьют посреди очистки, в журнале останется только
+    // начало старых записей, а они старше сохранённого снимка и при чтении пропускаются
+    public synchronized void truncate() {
+        for (int i = count - 1; i >= 0; i--) {
+            buffer.putInt(offset(i) + 12, 0);
+        }
+        count = 0;
+        checkpointed = 0;
+        generation++;
+    }
+
+    public synchronized void replay(Visitor visitor) {
+        for (int i = 0; i < count; i++) {
+            int at = offset(i);
+            int meta = buffer.getInt(at + 12);
+            visitor.onRecord(buffer.getLong(at), meta >>> 28, (meta >>> 24) & 0xF,
+                    buffer.getInt(at + 8), (meta & 0xFFFFFFL) * 1000);
+        }
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // Сбросить страницы на диск (на случай отключения питания, а не только убийства процесса)
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        file.close();
+    }
+
+    private void format() {
+        for (int at = 0; at < buffer.capacity(); at += 4) {
+            buffer.putInt(at, 0);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putInt(8, capacity);
+    }
+
+    private void rememberLast(int index) {
+        int at = offset(index);
+        lastTimestamp = buffer.getLong(at);
+        lastStats = buffer.getInt(at + 8);
+        lastElapsed = (buffer.getInt(at + 12) & 0xFFFFFFL) * 1000;
+    }
+
+    private static int offset(int index) {
+        return HEADER_BYTES + index * RECORD_BYTES;
+    }
+}
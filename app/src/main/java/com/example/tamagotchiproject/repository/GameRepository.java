@@ -2,21 +2,507 @@ package com.example.tamagotchiproject.repository;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.res.Resources;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import com.example.tamagotchiproject.R;
+import com.example.tamagotchiproject.engine.DifficultySchedule;
+import com.example.tamagotchiproject.engine.GameClock;
+import com.example.tamagotchiproject.engine.PackedStats;
+import com.example.tamagotchiproject.engine.QuantileSketch;
+import com.example.tamagotchiproject.engine.SimulationEngine;
+import com.example.tamagotchiproject.engine.Xoroshiro128PlusPlus;
 import com.example.tamagotchiproject.model.*;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+// Один репозиторий на процесс. Хранилище читается с диска один раз, дальше настройки,
+// рекорды и последнее сохранённое состояние берутся из памяти, а изменения рассылаются
+// всем наблюдателям через LiveData
 public class GameRepository {
+    public interface LoadCallback<T> {
+        // Вызывается на фоновом потоке загрузки
+        void onLoaded(T result);
+    }
+
+    // Старое хранилище: из него один раз переносим данные в GameStore
     private static final String PREFS_NAME = "game_settings";
-    private SharedPreferences prefs;
+    private static final String STORE_FILE = "game.store";
+    private static final String JOURNAL_FILE = "game.journal";
+    private static final String RUNS_FILE = "runs.dat";
+    private static final String RUNS_INDEX_FILE = "runs.idx";
+    private static final String RUN_SKETCH_FILE = "runs.sketch";
+    // 4096 записей по 16 байт: на трёх четвертях состояние сохраняется, и сохранённые записи стираются
+    private static final int JOURNAL_CAPACITY = 4096;
+    // Сохранения, пришедшие в течение этого времени, записываются на диск одной записью
+    private static final long WRITE_DELAY_MILLIS = 500;
+
+    private static volatile GameRepository instance;
+
+    // Чтение файлов, разбор и перемотка пропущенного времени - всё здесь, а не на главном потоке
+    private final ExecutorService background = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "game-loader");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private GameStore store;
+    private WriteBehindStore writer;
+    private GameJournal journal;
+    private RunHistoryStore runHistory;
+    // Распределение длительностей забегов по режимам (0 - средний, 1 - быстрый).
+    // Загружается в prewarm(); сами скетчи меняются и читаются под блокировкой массива
+    private volatile QuantileSketch[] runSketches;
+    // Журнал нужен только после гибели процесса: дальше хранилище в памяти новее него
+    private boolean journalReplayed;
+
+    private final MutableLiveData<GameSettings> settings = new MutableLiveData<>();
+    private final MutableLiveData<Long> bestTimeMedium = new MutableLiveData<>();
+    private final MutableLiveData<Long> bestTimeFast = new MutableLiveData<>();
+
+    private Context context;
+    private Resources resources;
+    private File filesDir;
+
+    public static GameRepository getInstance(Context context) {
+        GameRepository repository = instance;
+        if (repository == null) {
+            synchronized (GameRepository.class) {
+                repository = instance;
+                if (repository == null) {
+                    repository = new GameRepository(context.getApplicationContext() != null
+                            ? context.getApplicationContext() : context);
+                    instance = repository;
+                }
+            }
+        }
+        return repository;
+    }
+
+    // Забывает общий экземпляр: фоновые задачи доделываются, сохранение дописывается, журнал и история
+    // закрываются. Следующий getInstance() прочитает всё с диска заново, как после перезапуска процесса.
+    // Нужен замерам холодного запуска; не для главного потока
+    @VisibleForTesting
+    public static void releaseInstance() throws InterruptedException {
+        GameRepository repository;
+        synchronized (GameRepository.class) {
+            repository = instance;
+            instance = null;
+        }
+        if (repository != null) {
+            repository.close();
+        }
+    }
+
+    private void close() throws InterruptedException {
+        background.shutdown();
+        background.awaitTermination(5, TimeUnit.SECONDS);
+        synchronized (this) {
+            if (writer != null) {
+                writer.close();
+            }
+            try {
+                if (journal != null) {
+                    journal.close();
+                }
+                if (runHistory != null) {
+                    runHistory.close();
+                }
+            } catch (IOException e) {
+                Log.w("GameRepository", "Не удалось закрыть файлы", e);
+            }
+        }
+    }
+
+    private GameRepository(Context context) {
+        this.context = context;
+        resources = context.getResources();
+        filesDir = context.getFilesDir();
+    }
+
+    // Чтение насквозь: первый вызов загружает файл и заполняет LiveData, остальные берут из памяти
+    private GameStore getStore() {
+        synchronized (this) {
+            if (store == null) {
+                store = new GameStore(new File(filesDir, STORE_FILE), GameStore.SYNC_DATA);
+                if (!store.load()) {
+                    migrateFromPrefs(store);
+                }
+                writer = new WriteBehindStore(store, WRITE_DELAY_MILLIS);
+                writer.setErrorHandler(new WriteBehindStore.ErrorHandler() {
+                    @Override
+                    public void onWriteFailed(IOException e) {
+                        Log.w("GameRepository", "Не удалось записать сохранение", e);
+                    }
+                });
+                publish(settings, readSettings(store));
+                publish(bestTimeMedium, store.getBestTime(0));
+                publish(bestTimeFast, store.getBestTime(1));
+            }
+            return store;
+        }
+    }
+
+    // Перенос из SharedPreferences "game_settings" при первом запуске новой версии
+    private void migrateFromPrefs(GameStore target) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        if (prefs.getAll().isEmpty()) {
+            return;
+        }
+
+        target.setStats(PackedStats.pack(
+                prefs.getInt("hunger", 100),
+                prefs.getInt("happiness", 100),
+                prefs.getInt("cleanliness", 100),
+                prefs.getInt("energy", 100)));
+        target.setElapsedTime(prefs.getLong("elapsed_time", 0));
+        if (prefs.contains("saved_at")) {
+            target.setSavedAt(prefs.getLong("saved_at", 0));
+        }
+        if (prefs.contains("rng_seed")) {
+            target.setRngSeed(prefs.getLong("rng_seed", 0));
+        }
+        target.setGameOver(prefs.getBoolean("was_game_over", false));
+        target.setPetName(prefs.getString("pet_name", ""));
+        target.setGameSpeed(prefs.getInt("game_speed", 0));
+        target.setCharacter(prefs.getInt("character", 1));
+        target.setBestTime(0, prefs.getLong("best_time_0", 0));
+        target.setBestTime(1, prefs.getLong("best_time_1", 0));
+
+        // Перенос бывает один раз, и старые данные удаляются только после записи, поэтому пишем сразу
+        if (writeNow(target)) {
+            prefs.edit().clear().apply();
+        }
+    }
+
+    private static boolean writeNow(GameStore target) {
+        try {
+            target.save();
+            return true;
+        } catch (IOException e) {
+            Log.w("GameRepository", "Не удалось записать сохранение", e);
+            return false;
+        }
+    }
+
+    // Журнал событий текущей игры или null, если файл открыть не удалось (тогда живём только сохранениями)
+    public GameJournal getJournal() {
+        synchronized (this) {
+            if (journal == null) {
+                try {
+                    journal = new GameJournal(new File(filesDir, JOURNAL_FILE), JOURNAL_CAPACITY, GameClock.SYSTEM);
+                    journal.setCheckpointer(new GameJournal.Checkpointer() {
+                        @Override
+                        public void checkpoint(int stats, long elapsedTime, long timestamp,
+                                               GameJournal.Completion done) {
+                            saveCheckpoint(stats, elapsedTime, timestamp, done);
+                        }
+                    });
+                } catch (IOException e) {
+                    Log.w("GameRepository", "Не удалось открыть журнал игры", e);
+                }
+            }
+            return journal;
+        }
+    }
+
+    // История забегов или null, если файл открыть не удалось
+    public RunHistoryStore getRunHistory() {
+        synchronized (this) {
+            if (runHistory == null) {
+                try {
+                    runHistory = new RunHistoryStore(new File(filesDir, RUNS_FILE), new File(filesDir, RUNS_INDEX_FILE));
+                } catch (IOException e) {
+                    Log.w("GameRepository", "Не удалось открыть историю забегов", e);
+                }
+            }
+            return runHistory;
+        }
+    }
+
+    // Законченная игра уходит в историю в фоне
+    public void recordRun(final RunRecord run) {
+        background.execute(new Runnable() {
+            @Override
+            public void run() {
+                RunHistoryStore history = getRunHistory();
+                if (history == null) {
+                    return;
+                }
+                try {
+                    history.append(run);
+                } catch (IOException e) {
+                    Log.w("GameRepository", "Не удалось записать забег", e);
+                }
+                addToRunSketch(run);
+            }
+        });
+    }
+
+    // Сколько процентов прошлых забегов этого режима короче данного; -1, если прошлых забегов нет
+    // или скетчи ещё не загружены. Вызывается с главного потока в конце игры, поэтому смотрит только
+    // в память: файл и историю читает prewarm() в фоне, а монитор репозитория здесь не нужен
+    public int percentBeaten(int gameSpeed, long duration) {
+        QuantileSketch[] sketches = runSketches;
+        if (sketches == null || gameSpeed < 0 || gameSpeed >= sketches.length) {
+            return -1;
+        }
+        synchronized (sketches) {
+            if (sketches[gameSpeed].getCount() == 0) {
+                return -1;
+            }
+            return (int) Math.round(100 * sketches[gameSpeed].fractionBelow(duration));
+        }
+    }
+
+    private void addToRunSketch(RunRecord run) {
+        synchronized (this) {
+            QuantileSketch[] sketches = getRunSketches();
+            if (run.getGameSpeed() < 0 || run.getGameSpeed() >= sketches.length) {
+                return;
+            }
+            synchronized (sketches) {
+                sketches[run.getGameSpeed()].update(run.getDuration());
+            }
+            saveRunSketches(sketches);
+        }
+    }
+
+    // Скетчи читаются из файла; если его нет или он испорчен - один раз строятся по истории
+    private QuantileSketch[] getRunSketches() {
+        if (runSketches != null) {
+            return runSketches;
+        }
+        File sketchFile = new File(filesDir, RUN_SKETCH_FILE);
+        if (sketchFile.exists()) {
+            try (FileInputStream in = new FileInputStream(sketchFile)) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) sketchFile.length());
+                FileChannel channel = in.getChannel();
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // читаем файл целиком
+                }
+                buffer.flip();
+                QuantileSketch[] loaded = new QuantileSketch[buffer.getInt()];
+                for (int i = 0; i < loaded.length; i++) {
+                    loaded[i] = QuantileSketch.readFrom(buffer);
+                }
+                if (loaded.length == 2) {
+                    runSketches = loaded;
+                    return runSketches;
+                }
+            } catch (IOException | RuntimeException e) {
+                Log.w("GameRepository", "Скетч забегов испорчен, строим заново", e);
+            }
+        }
+
+        QuantileSketch[] built = {new QuantileSketch(), new QuantileSketch()};
+        RunHistoryStore history = getRunHistory();
+        if (history != null) {
+            try {
+                for (int page = 0; ; page++) {
+                    List<RunRecord> runs = history.history(page, 512);
+                    if (runs.isEmpty()) {
+                        break;
+                    }
+                    for (RunRecord run : runs) {
+                        if (run.getGameSpeed() >= 0 && run.getGameSpeed() < built.length) {
+                            built[run.getGameSpeed()].update(run.getDuration());
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                Log.w("GameRepository", "Не удалось прочитать историю забегов", e);
+            }
+        }
+        runSketches = built;
+        saveRunSketches(built);
+        return runSketches;
+    }
+
+    private void saveRunSketches(QuantileSketch[] sketches) {
+        ByteBuffer buffer;
+        synchronized (sketches) {
+            int size = 4;
+            for (QuantileSketch sketch : sketches) {
+                size += sketch.serializedSize();
+            }
+            buffer = ByteBuffer.allocate(size);
+            buffer.putInt(sketches.length);
+            for (QuantileSketch sketch : sketches) {
+                sketch.writeTo(buffer);
+            }
+        }
+        buffer.flip();
+
+        File sketchFile = new File(filesDir, RUN_SKETCH_FILE);
+        File tempFile = new File(filesDir, RUN_SKETCH_FILE + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            FileChannel channel = out.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            Log.w("GameRepository", "Не удалось записать скетч забегов", e);
+            return;
+        }
+        if (!tempFile.renameTo(sketchFile)) {
+            Log.w("GameRepository", "Не удалось заменить " + sketchFile);
+        }
+    }
+
+    // Сохранение из журнала перед его очисткой. Вызывается потоком актёра (для нажатий - главным),
+    // поэтому на диск пишет фоновый поток, а журнал стирает записи только после успешной записи
+    private void saveCheckpoint(int stats, long elapsedTime, long timestamp, final GameJournal.Completion done) {
+        final GameStore target = getStore();
+        target.setStats(stats);
+        target.setElapsedTime(elapsedTime);
+        target.setSavedAt(timestamp);
+        background.execute(new Runnable() {
+            @Override
+            public void run() {
+                done.onComplete(writeNow(target));
+            }
+        });
+    }
+
+    // Обычное сохранение: попадёт на диск в фоне вместе с остальными изменениями за WRITE_DELAY_MILLIS
+    private void write() {
+        getStore();
+        writer.requestFlush();
+    }
+
+    // Немедленная фоновая запись всех накопленных изменений: уход приложения в фон,
+    // конец игры, сброс. Главный поток диска не ждёт
+    public void flush() {
+        getStore();
+        writer.flushNow();
+    }
+
+    // Копия настроек: изменять её можно, не трогая кэш
+    private static GameSettings readSettings(GameStore source) {
+        GameSettings result = new GameSettings();
+        result.setPetName(source.getPetName());
+        result.setGameSpeed(source.getGameSpeed());
+        result.setCharacter(source.getCharacter());
+        return result;
+    }
+
+    private static <T> void publish(MutableLiveData<T> liveData, T value) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            liveData.setValue(value);
+        } else {
+            liveData.postValue(value);
+        }
+    }
+
+    public Executor getBackgroundExecutor() {
+        return background;
+    }
 
-    public GameRepository(Context context) {
-        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    // Заранее открывает хранилище, журнал и кривую сложности выбранного персонажа
+    public void prewarm() {
+        GameStore loaded = getStore();
+        getJournal();
+        getRunHistory();
+        synchronized (this) {
+            getRunSketches();
+        }
+        loadDifficultySchedule(loaded.getCharacter());
+    }
+
+    // Хранилище ещё не прочитано - читаем его в фоне; LiveData получат значения по готовности
+    private void loadInBackground() {
+        synchronized (this) {
+            if (store != null) {
+                return;
+            }
+        }
+        background.execute(new Runnable() {
+            @Override
+            public void run() {
+                getStore();
+            }
+        });
+    }
+
+    public void loadGameStateAsync(final boolean isNewGame, final LoadCallback<GameState> callback) {
+        background.execute(new Runnable() {
+            @Override
+            public void run() {
+                callback.onLoaded(loadGameState(isNewGame));
+            }
+        });
+    }
+
+    public void loadSettingsAsync(final LoadCallback<GameSettings> callback) {
+        background.execute(new Runnable() {
+            @Override
+            public void run() {
+                callback.onLoaded(getSettings());
+            }
+        });
+    }
+
+    public LiveData<GameSettings> getSettingsLive() {
+        loadInBackground();
+        return settings;
+    }
+
+    public GameSettings getSettings() {
+        return readSettings(getStore());
+    }
+
+    public LiveData<Long> getBestTimeLive(int gameSpeed) {
+        loadInBackground();
+        return gameSpeed == 1 ? bestTimeFast : bestTimeMedium;
+    }
+
+    private synchronized boolean takeJournalReplay() {
+        boolean first = !journalReplayed;
+        journalReplayed = true;
+        return first;
+    }
+
+    // Кривая сложности персонажа из res/values/difficulty.xml
+    public DifficultySchedule loadDifficultySchedule(int character) {
+        int arrayId;
+        switch (character) {
+            case 2:
+                arrayId = R.array.difficulty_minutes_cat;
+                break;
+            case 3:
+                arrayId = R.array.difficulty_minutes_frog;
+                break;
+            default:
+                arrayId = R.array.difficulty_minutes_panda;
+                break;
+        }
+        return DifficultySchedule.ofMinutes(resources.getIntArray(arrayId));
     }
 
     public GameState loadGameState(boolean isNewGame) {
+        GameStore saved = getStore();
         GameState gameState = new GameState();
 
         // Проверяем, была ли игра закончена
-        boolean wasGameOver = prefs.getBoolean("was_game_over", false);
+        boolean wasGameOver = saved.isGameOver();
         if (wasGameOver) {
             isNewGame = true;
         }
@@ -26,24 +512,57 @@ public class GameRepository {
         if (isNewGame) {
             stats = new PetStats(100, 100, 100, 100);
         } else {
-            stats = new PetStats(
-                    prefs.getInt("hunger", 100),
-                    prefs.getInt("happiness", 100),
-                    prefs.getInt("cleanliness", 100),
-                    prefs.getInt("energy", 100)
-            );
+            stats = PetStats.fromPacked(saved.getStats());
         }
         gameState.setPetStats(stats);
 
+        long elapsedTime = saved.getElapsedTime();
+        long savedAt = saved.getSavedAt();
+        boolean hasSavedState = saved.hasSavedState();
+
+        // Поверх последнего сохранения проигрываем журнал: всё, что случилось после него.
+        // Внутри одного процесса каждая игра сохраняется при закрытии, так что хватает первого раза
+        if (!isNewGame && takeJournalReplay()) {
+            JournalTail tail = new JournalTail(savedAt);
+            GameJournal gameJournal = getJournal();
+            if (gameJournal != null) {
+                gameJournal.replay(tail);
+            }
+            if (tail.found) {
+                stats = PetStats.fromPacked(tail.stats);
+                gameState.setPetStats(stats);
+                elapsedTime = tail.elapsedTime;
+                savedAt = tail.timestamp;
+                hasSavedState = true;
+            }
+        }
+
+        // Новая игра получает свежее зерно из конструктора GameState
+        if (!isNewGame && saved.hasRngSeed()) {
+            long seed = saved.getRngSeed();
+            // После сохранения игра уже тратила этот поток; по журналу уходим на новый, а не повторяем его
+            gameState.setRngSeed(savedAt != saved.getSavedAt() ? new Xoroshiro128PlusPlus(seed ^ savedAt).nextLong() : seed);
+        }
+
         // Загрузка настроек
-        GameSettings settings = new GameSettings();
-        settings.setPetName(prefs.getString("pet_name", ""));
-        settings.setGameSpeed(prefs.getInt("game_speed", 0));
-        settings.setCharacter(prefs.getInt("character", 1));
+        GameSettings settings = readSettings(saved);
+        gameState.setDifficultySchedule(loadDifficultySchedule(settings.getCharacter()));
 
-        long elapsedTime = prefs.getLong("elapsed_time", 0);
         if (isNewGame) {
             elapsedTime = 0;
+        } else {
+            // Пока приложение было закрыто, питомец продолжал жить: догоняем пропущенное время
+            long awayTime = System.currentTimeMillis() - savedAt;
+            if (hasSavedState && awayTime >= SimulationEngine.TICK_MILLIS) {
+                SimulationEngine engine = new SimulationEngine(settings.getGameSpeed(), gameState.getRngSeed());
+                engine.setDifficultySchedule(gameState.getDifficultySchedule());
+                engine.load(stats.getPacked(), elapsedTime);
+                engine.fastForward(awayTime / SimulationEngine.TICK_MILLIS);
+                stats = PetStats.fromPacked(engine.getStats());
+                gameState.setPetStats(stats);
+                gameState.setRngSeed(engine.getRandom().deriveSeed());
+                elapsedTime = engine.getElapsedTime();
+            }
         }
         settings.setElapsedTime(elapsedTime);
         gameState.setGameSettings(settings);
@@ -63,70 +582,105 @@ public class GameRepository {
     }
 
     public void saveGameState(GameState gameState) {
-        SharedPreferences.Editor editor = prefs.edit();
-        PetStats stats = gameState.getPetStats();
+        GameStore target = getStore();
         GameSettings settings = gameState.getGameSettings();
 
-        editor.putInt("hunger", stats.getHunger());
-        editor.putInt("happiness", stats.getHappiness());
-        editor.putInt("cleanliness", stats.getCleanliness());
-        editor.putInt("energy", stats.getEnergy());
+        target.setStats(gameState.getPetStats().getPacked());
 
         // Сохраняем прошедшее время
-        long elapsedTime = gameState.getElapsedTime();
-        editor.putLong("elapsed_time", elapsedTime);
+        target.setElapsedTime(gameState.getElapsedTime());
+        target.setSavedAt(System.currentTimeMillis());
+        target.setRngSeed(gameState.getRngSeed());
 
-        editor.putInt("game_speed", settings.getGameSpeed());
-        editor.putBoolean("was_game_over", false);
+        target.setGameSpeed(settings.getGameSpeed());
+        target.setGameOver(false);
 
-        editor.apply();
+        write();
     }
 
     public void saveSettings(GameSettings settings) {
-        SharedPreferences.Editor editor = prefs.edit();
-        editor.putString("pet_name", settings.getPetName());
-        editor.putInt("character", settings.getCharacter());
-        editor.putInt("game_speed", settings.getGameSpeed());
-        editor.apply();
+        GameStore target = getStore();
+        target.setPetName(settings.getPetName());
+        target.setCharacter(settings.getCharacter());
+        target.setGameSpeed(settings.getGameSpeed());
+        write();
+        publish(this.settings, readSettings(target));
     }
 
     public void saveBestTime(long elapsedTime, int gameSpeed) {
-        // Используем ключ "best_time_0" или "best_time_1"
-        String bestTimeKey = "best_time_" + gameSpeed;
-        long currentBestTime = prefs.getLong(bestTimeKey, 0);
-
-        if (elapsedTime > currentBestTime) {
-            SharedPreferences.Editor editor = prefs.edit();
-            editor.putLong(bestTimeKey, elapsedTime);
-            editor.apply();
+        GameStore target = getStore();
+        if (elapsedTime > target.getBestTime(gameSpeed)) {
+            target.setBestTime(gameSpeed, elapsedTime);
+            write();
+            publish(gameSpeed == 1 ? bestTimeFast : bestTimeMedium, elapsedTime);
         }
     }
 
     public long getBestTime(int gameSpeed) {
-        String key = "best_time_" + gameSpeed;
-        return prefs.getLong(key, 0);
+        return getStore().getBestTime(gameSpeed);
     }
 
     public void markGameOver() {
-        SharedPreferences.Editor editor = prefs.edit();
-        editor.putBoolean("was_game_over", true);
-        editor.apply();
+        GameStore target = getStore();
+        target.setGameOver(true);
+        flush();
     }
 
+    // Журнал очищается только после того, как сброшенное сохранение легло на диск: иначе гибель
+    // процесса в промежутке вернула бы старую игру из старого файла
     public void resetGameState() {
-        SharedPreferences.Editor editor = prefs.edit();
-        editor.remove("hunger");
-        editor.remove("happiness");
-        editor.remove("cleanliness");
-        editor.remove("energy");
-        editor.remove("elapsed_time");
-        editor.putBoolean("was_game_over", false);
-        editor.apply();
+        GameStore target = getStore();
+        target.clearGame();
+
+        GameJournal gameJournal = getJournal();
+        final GameJournal.Completion truncate = gameJournal != null ? gameJournal.truncateWhenSaved() : null;
+        final WriteBehindStore storeWriter = writer;
+        background.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean saved;
+                try {
+                    saved = storeWriter.flushAndWait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    saved = false;
+                }
+                if (truncate != null) {
+                    truncate.onComplete(saved);
+                }
+            }
+        });
     }
 
     public void clearGameOverFlag() {
-        SharedPreferences.Editor editor = prefs.edit();
-        editor.putBoolean("was_game_over", false);
-        editor.apply();
+        GameStore target = getStore();
+        if (target.isGameOver()) {
+            target.setGameOver(false);
+            write();
+        }
+    }
+
+    // Последняя запись журнала, сделанная после сохранения; более старые уже учтены в нём
+    private static class JournalTail implements GameJournal.Visitor {
+        private final long savedAt;
+        boolean found;
+        int stats;
+        long elapsedTime;
+        long timestamp;
+
+        JournalTail(long savedAt) {
+            this.savedAt = savedAt;
+        }
+
+        @Override
+        public void onRecord(long timestamp, int type, int detail, int stats, long elapsedTime) {
+            if (timestamp < savedAt) {
+                return;
+            }
+            this.found = true;
+            this.stats = stats;
+            this.elapsedTime = elapsedTime;
+            this.timestamp = timestamp;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,347 @@
+package com.example.tamagotchiproject.repository;
+
+import com.example.tamagotchiproject.engine.PackedStats;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Хранилище сохранения в одном двоичном файле фиксированной раскладки вместо XML SharedPreferences.
+// Все поля лежат в памяти, save() записывает файл целиком: сначала во временный, затем
+// переименованием поверх старого, так что на диске всегда либо старая, либо новая версия.
+// Заголовок: магическое число, версия формата, длина данных и CRC32 данных
+public class GameStore {
+    // Когда сбрасывать данные на диск
+    public static final int SYNC_NONE = 0;          // полагаемся на ОС: переживает убийство процесса
+    public static final int SYNC_DATA = 1;          // fsync временного файла перед переименованием
+    public static final int SYNC_DATA_AND_DIR = 2;  // плюс fsync каталога после переименования
+
+    private static final int MAGIC = 0x54475354; // "TGST"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    // Имя хранится в UTF-8 не длиннее NAME_BYTES; поле ввода ограничено тем же числом байт
+    public static final int NAME_BYTES = 64;
+    // 4 байта характеристик, 4 байта флагов и режима, 5 long, длина имени и само имя
+    private static final int PAYLOAD_BYTES = 4 + 4 + 5 * 8 + 2 + NAME_BYTES;
+    public static final int FILE_BYTES = HEADER_BYTES + PAYLOAD_BYTES;
+
+    // Биты маски изменённых полей с последней записи на диск
+    public static final int DIRTY_STATS = 1;
+    public static final int DIRTY_TIME = 1 << 1;
+    public static final int DIRTY_SEED = 1 << 2;
+    public static final int DIRTY_FLAGS = 1 << 3;
+    public static final int DIRTY_SETTINGS = 1 << 4;
+    public static final int DIRTY_BEST_TIMES = 1 << 5;
+
+    private static final int FLAG_GAME_OVER = 1;
+    private static final int FLAG_SAVED_STATE = 1 << 1;
+    private static final int FLAG_RNG_SEED = 1 << 2;
+
+    private final File file;
+    private final File tempFile;
+    private final int syncPolicy;
+    private final ByteBuffer buffer = ByteBuffer.allocate(FILE_BYTES);
+    private final CRC32 crc = new CRC32();
+    // Запись на диск идёт под отдельной блокировкой, чтобы сеттеры не ждали fsync
+    private final Object ioLock = new Object();
+    private final ByteBuffer ioBuffer = ByteBuffer.allocate(FILE_BYTES);
+    private final CRC32 ioCrc = new CRC32();
+    private int dirty;
+
+    private int stats = PackedStats.FULL;
+    private int gameSpeed;
+    private int character = 1;
+    private int flags;
+    private long elapsedTime;
+    private long savedAt;
+    private long rngSeed;
+    private final long[] bestTimes = new long[2];
+    private String petName = "";
+
+    public GameStore(File file, int syncPolicy) {
+        this.file = file;
+        this.tempFile = new File(file.getPath() + ".tmp");
+        this.syncPolicy = syncPolicy;
+    }
+
+    public boolean exists() {
+        return file.exists();
+    }
+
+    // Читает файл; если его нет или он повреждён, поля остаются по умолчанию и возвращается false
+    public synchronized boolean load() {
+        if (!file.exists()) {
+            return false;
+        }
+        buffer.clear();
+        try (FileInputStream in = new FileInputStream(file)) {
+            FileChannel channel = in.getChannel();
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // читаем до конца буфера
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        if (buffer.position() != FILE_BYTES) {
+            return false;
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION
+                || buffer.getInt(8) != PAYLOAD_BYTES) {
+            return false;
+        }
+        crc.reset();
+        crc.update(buffer.array(), HEADER_BYTES, PAYLOAD_BYTES);
+        if ((int) crc.getValue() != buffer.getInt(12)) {
+            return false;
+        }
+
+        buffer.position(HEADER_BYTES);
+        stats = buffer.getInt();
+        gameSpeed = buffer.get();
+        character = buffer.get();
+        flags = buffer.getShort();
+        elapsedTime = buffer.getLong();
+        savedAt = buffer.getLong();
+        rngSeed = buffer.getLong();
+        bestTimes[0] = buffer.getLong();
+        bestTimes[1] = buffer.getLong();
+        int nameLength = Math.min(NAME_BYTES, buffer.getShort());
+        petName = new String(buffer.array(), buffer.position(), nameLength, StandardCharsets.UTF_8);
+        dirty = 0;
+        return true;
+    }
+
+    // Записывает файл, если с прошлой записи что-то изменилось. Возвращает false, если писать было нечего
+    public boolean saveIfDirty() throws IOException {
+        return save(false);
+    }
+
+    public void save() throws IOException {
+        save(true);
+    }
+
+    private boolean save(boolean force) throws IOException {
+        synchronized (ioLock) {
+            int flushed;
+            synchronized (this) {
+                if (!force && dirty == 0) {
+                    return false;
+                }
+                encode(ioBuffer, ioCrc);
+                flushed = dirty;
+                dirty = 0;
+            }
+            try {
+                writeFile(ioBuffer);
+            } catch (IOException e) {
+                // Не записалось - поля остаются изменёнными до следующей попытки
+                synchronized (this) {
+                    dirty |= flushed;
+                }
+                throw e;
+            }
+            return true;
+        }
+    }
+
+    private void encode(ByteBuffer out, CRC32 checksum) {
+        out.clear();
+        out.putInt(MAGIC);
+        out.putInt(FORMAT_VERSION);
+        out.putInt(PAYLOAD_BYTES);
+        out.putInt(0); // CRC - ниже
+        out.putInt(stats);
+        out.put((byte) gameSpeed);
+        out.put((byte) character);
+        out.putShort((short) flags);
+        out.putLong(elapsedTime);
+        out.putLong(savedAt);
+        out.putLong(rngSeed);
+        out.putLong(bestTimes[0]);
+        out.putLong(bestTimes[1]);
+        byte[] name = encodeName(petName);
+        out.putShort((short) name.length);
+        out.put(name);
+        while (out.hasRemaining()) {
+            out.put((byte) 0);
+        }
+
+        checksum.reset();
+        checksum.update(out.array(), HEADER_BYTES, PAYLOAD_BYTES);
+        out.putInt(12, (int) checksum.getValue());
+        out.flip();
+    }
+
+    private void writeFile(ByteBuffer image) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(tempFile)) {
+            FileChannel channel = out.getChannel();
+            while (image.hasRemaining()) {
+                channel.write(image);
+            }
+            if (syncPolicy >= SYNC_DATA) {
+                channel.force(true);
+            }
+        }
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("Не удалось заменить " + file);
+        }
+        if (syncPolicy >= SYNC_DATA_AND_DIR) {
+            syncDirectory(file.getParentFile());
+        }
+    }
+
+    public synchronized int getDirtyMask() { return dirty; }
+    public synchronized boolean isDirty() { return dirty != 0; }
+
+    public synchronized void delete() {
+        file.delete();
+        tempFile.delete();
+    }
+
+    public synchronized int getStats() { return stats; }
+    public synchronized void setStats(int stats) {
+        if (this.stats != stats) {
+            this.stats = stats;
+            dirty |= DIRTY_STATS;
+        }
+    }
+
+    public synchronized int getGameSpeed() { return gameSpeed; }
+    public synchronized void setGameSpeed(int gameSpeed) {
+        if (this.gameSpeed != gameSpeed) {
+            this.gameSpeed = gameSpeed;
+            dirty |= DIRTY_SETTINGS;
+        }
+    }
+
+    public synchronized int getCharacter() { return character; }
+    public synchronized void setCharacter(int character) {
+        if (this.character != character) {
+            this.character = character;
+            dirty |= DIRTY_SETTINGS;
+        }
+    }
+
+    public synchronized String getPetName() { return petName; }
+    public synchronized void setPetName(String petName) {
+        String name = petName == null ? "" : petName;
+        if (!this.petName.equals(name)) {
+            this.petName = name;
+            dirty |= DIRTY_SETTINGS;
+        }
+    }
+
+    public synchronized long getElapsedTime() { return elapsedTime; }
+    public synchronized void setElapsedTime(long elapsedTime) {
+        if (this.elapsedTime != elapsedTime) {
+            this.elapsedTime = elapsedTime;
+            dirty |= DIRTY_TIME;
+        }
+    }
+
+    public synchronized boolean isGameOver() { return (flags & FLAG_GAME_OVER) != 0; }
+    public synchronized void setGameOver(boolean gameOver) { setFlag(FLAG_GAME_OVER, gameOver); }
+
+    // Момент последнего сохранения характеристик; отсутствует у новой игры
+    public synchronized boolean hasSavedState() { return (flags & FLAG_SAVED_STATE) != 0; }
+    public synchronized long getSavedAt() { return savedAt; }
+    public synchronized void setSavedAt(long savedAt) {
+        if (this.savedAt != savedAt) {
+            this.savedAt = savedAt;
+            dirty |= DIRTY_TIME;
+        }
+        setFlag(FLAG_SAVED_STATE, true);
+    }
+
+    public synchronized boolean hasRngSeed() { return (flags & FLAG_RNG_SEED) != 0; }
+    public synchronized long getRngSeed() { return rngSeed; }
+    public synchronized void setRngSeed(long rngSeed) {
+        if (this.rngSeed != rngSeed) {
+            this.rngSeed = rngSeed;
+            dirty |= DIRTY_SEED;
+        }
+        setFlag(FLAG_RNG_SEED, true);
+    }
+
+    public synchronized long getBestTime(int gameSpeed) {
+        return (gameSpeed == 0 || gameSpeed == 1) ? bestTimes[gameSpeed] : 0;
+    }
+
+    public synchronized void setBestTime(int gameSpeed, long bestTime) {
+        if ((gameSpeed == 0 || gameSpeed == 1) && bestTimes[gameSpeed] != bestTime) {
+            bestTimes[gameSpeed] = bestTime;
+            dirty |= DIRTY_BEST_TIMES;
+        }
+    }
+
+    // Новая игра: характеристики, время и зерно забываются, настройки и рекорды остаются
+    public synchronized void clearGame() {
+        setStats(PackedStats.FULL);
+        setElapsedTime(0);
+        if (savedAt != 0 || rngSeed != 0) {
+            savedAt = 0;
+            rngSeed = 0;
+            dirty |= DIRTY_TIME | DIRTY_SEED;
+        }
+        setFlag(FLAG_GAME_OVER | FLAG_SAVED_STATE | FLAG_RNG_SEED, false);
+    }
+
+    private void setFlag(int flag, boolean value) {
+        int updated = value ? (flags | flag) : (flags & ~flag);
+        if (updated != flags) {
+            flags = updated;
+            dirty |= DIRTY_FLAGS;
+        }
+    }
+
+    // Длина имени в UTF-8 без кодирования строки
+    public static int nameBytes(CharSequence name) {
+        int bytes = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < name.length()
+                    && Character.isLowSurrogate(name.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    // Имя в UTF-8, обрезанное до NAME_BYTES по границе символа
+    private static byte[] encodeName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= NAME_BYTES) {
+            return bytes;
+        }
+        int end = NAME_BYTES;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        byte[] cut = new byte[end];
+        System.arraycopy(bytes, 0, cut, 0, end);
+        return cut;
+    }
+
+    private static void syncDirectory(File directory) throws IOException {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+}
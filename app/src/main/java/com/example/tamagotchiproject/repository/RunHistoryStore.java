@@ -0,0 +1,328 @@
+package com.example.tamagotchiproject.repository;
+
+import com.example.tamagotchiproject.engine.GameAction;
+import com.example.tamagotchiproject.model.RunRecord;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// История всех законченных игр. Забеги лежат в файле только на дозапись записями фиксированной
+// длины, номер забега - его место в файле. Рядом хранится индекс: для каждого режима и персонажа
+// (и для режима целиком) отсортированный массив ключей, по которому рейтинг, лучшие K и место
+// забега находятся двоичным поиском. Индекс сбрасывается на диск при закрытии и когда без него
+// накопилось INDEX_SAVE_EVERY забегов или восьмая часть истории (так общий объём его записи
+// растёт линейно); забеги, которых в нём нет, доиндексируются при открытии
+public class RunHistoryStore implements Closeable {
+    public static final int ALL_CHARACTERS = 0;
+    public static final int RECORD_BYTES = 104;
+    public static final int INDEX_SAVE_EVERY = 64;
+
+    private static final int HEADER_BYTES = 16;
+    private static final int MAGIC = 0x5452554E; // "TRUN"
+    private static final int INDEX_MAGIC = 0x54524958; // "TRIX"
+    private static final int FORMAT_VERSION = 1;
+    private static final int NAME_BYTES = 64;
+    // Режимы 0 и 1, персонажи 1-3 плюс "все персонажи"
+    private static final int SPEEDS = 2;
+    private static final int GROUPS_PER_SPEED = 4;
+
+    // Запись (104 байта): время окончания и длительность (long), персонаж, режим, причина,
+    // длина имени (байты), 4 счётчика действий (int), имя в UTF-8 и CRC32 первых 100 байт
+    private static final int NAME_OFFSET = 36;
+    private static final int CRC_OFFSET = NAME_OFFSET + NAME_BYTES;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final File indexFile;
+    private final File indexTempFile;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private final CRC32 crc = new CRC32();
+    private final RunIndex[] indexes = new RunIndex[SPEEDS * GROUPS_PER_SPEED];
+    private int count;
+    private int indexedOnDisk;
+
+    public RunHistoryStore(File path, File indexPath) throws IOException {
+        this.file = new RandomAccessFile(path, "rw");
+        this.channel = file.getChannel();
+        this.indexFile = indexPath;
+        this.indexTempFile = new File(indexPath.getPath() + ".tmp");
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION || header.getInt(8) != RECORD_BYTES) {
+            format();
+        }
+
+        // Недописанный хвост от убитого процесса отрезаем
+        count = (int) Math.min(RunIndex.MAX_ID, (channel.size() - HEADER_BYTES) / RECORD_BYTES);
+        if (count > 0 && !readRecord(count - 1)) {
+            count--;
+        }
+        channel.truncate(HEADER_BYTES + (long) count * RECORD_BYTES);
+
+        if (!loadIndex()) {
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = new RunIndex();
+            }
+            indexedOnDisk = 0;
+        }
+        for (int id = indexedOnDisk; id < count; id++) {
+            if (readRecord(id)) {
+                addToIndexes(id, record.getLong(8), record.get(16), record.get(17), false);
+            }
+        }
+        for (RunIndex index : indexes) {
+            index.sort();
+        }
+    }
+
+    private void format() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(RECORD_BYTES).putInt(0);
+        header.flip();
+        channel.truncate(0);
+        channel.write(header, 0);
+        indexFile.delete();
+    }
+
+    // Возвращает номер забега
+    public synchronized int append(RunRecord run) throws IOException {
+        if (count == RunIndex.MAX_ID) {
+            throw new IOException("История забегов переполнена");
+        }
+        int id = count;
+        record.clear();
+        record.putLong(run.getFinishedAt());
+        record.putLong(run.getDuration());
+        record.put((byte) run.getCharacter());
+        record.put((byte) run.getGameSpeed());
+        record.put((byte) run.getCause());
+        byte[] name = encodeName(run.getPetName());
+        record.put((byte) name.length);
+        for (int action = GameAction.FEED; action <= GameAction.REST; action++) {
+            record.putInt(run.getActionCount(action));
+        }
+        record.put(name);
+        while (record.position() < CRC_OFFSET) {
+            record.put((byte) 0);
+        }
+        crc.reset();
+        crc.update(record.array(), 0, CRC_OFFSET);
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        long at = HEADER_BYTES + (long) id * RECORD_BYTES;
+        while (record.hasRemaining()) {
+            at += channel.write(record, at);
+        }
+        count++;
+        addToIndexes(id, run.getDuration(), run.getCharacter(), run.getGameSpeed(), true);
+
+        if (count - indexedOnDisk >= Math.max(INDEX_SAVE_EVERY, indexedOnDisk / 8)) {
+            saveIndex();
+        }
+        return id;
+    }
+
+    public synchronized RunRecord get(int id) throws IOException {
+        if (id < 0 || id >= count || !readRecord(id)) {
+            return null;
+        }
+        return decode();
+    }
+
+    // Лучшие забеги группы, начиная с места offset (с 0); character = ALL_CHARACTERS - весь режим
+    public synchronized List<RunRecord> top(int gameSpeed, int character, int offset, int limit) throws IOException {
+        RunIndex index = index(gameSpeed, character);
+        List<RunRecord> result = new ArrayList<>();
+        if (index == null || limit <= 0) {
+            return result;
+        }
+        int[] ids = new int[limit];
+        int n = index.top(Math.max(0, offset), ids);
+        for (int i = 0; i < n; i++) {
+            RunRecord run = get(ids[i]);
+            if (run != null) {
+                result.add(run);
+            }
+        }
+        return result;
+    }
+
+    // Место (с 1), которое занял бы забег такой длительности в группе
+    public synchronized int rank(int gameSpeed, int character, long duration) {
+        RunIndex index = index(gameSpeed, character);
+        return index == null ? 1 : index.rank(duration);
+    }
+
+    public synchronized int count(int gameSpeed, int character) {
+        RunIndex index = index(gameSpeed, character);
+        return index == null ? 0 : index.size();
+    }
+
+    // Страница истории, новые забеги сначала
+    public synchronized List<RunRecord> history(int page, int pageSize) throws IOException {
+        List<RunRecord> result = new ArrayList<>();
+        int from = count - 1 - page * pageSize;
+        for (int id = from; id > from - pageSize && id >= 0; id--) {
+            RunRecord run = get(id);
+            if (run != null) {
+                result.add(run);
+            }
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (indexedOnDisk != count) {
+            saveIndex();
+        }
+        file.close();
+    }
+
+    private RunIndex index(int gameSpeed, int character) {
+        if (gameSpeed < 0 || gameSpeed >= SPEEDS || character < 0 || character >= GROUPS_PER_SPEED) {
+            return null;
+        }
+        return indexes[gameSpeed * GROUPS_PER_SPEED + character];
+    }
+
+    private void addToIndexes(int id, long duration, int character, int gameSpeed, boolean keepSorted) {
+        if (gameSpeed < 0 || gameSpeed >= SPEEDS) {
+            return;
+        }
+        long key = RunIndex.key(duration, id);
+        RunIndex all = indexes[gameSpeed * GROUPS_PER_SPEED + ALL_CHARACTERS];
+        RunIndex own = character > 0 && character < GROUPS_PER_SPEED
+                ? indexes[gameSpeed * GROUPS_PER_SPEED + character] : null;
+        if (keepSorted) {
+            all.insert(key);
+            if (own != null) own.insert(key);
+        } else {
+            all.add(key);
+            if (own != null) own.add(key);
+        }
+    }
+
+    // Читает запись в буфер и проверяет её контрольную сумму
+    private boolean readRecord(int id) throws IOException {
+        record.clear();
+        long at = HEADER_BYTES + (long) id * RECORD_BYTES;
+        while (record.hasRemaining()) {
+            int read = channel.read(record, at);
+            if (read < 0) {
+                return false;
+            }
+            at += read;
+        }
+        crc.reset();
+        crc.update(record.array(), 0, CRC_OFFSET);
+        return (int) crc.getValue() == record.getInt(CRC_OFFSET);
+    }
+
+    private RunRecord decode() {
+        int[] actions = new int[GameAction.REST + 1];
+        for (int action = GameAction.FEED; action <= GameAction.REST; action++) {
+            actions[action] = record.getInt(20 + (action - GameAction.FEED) * 4);
+        }
+        int nameLength = Math.min(NAME_BYTES, record.get(19) & 0xFF);
+        String name = new String(record.array(), NAME_OFFSET, nameLength, StandardCharsets.UTF_8);
+        return new RunRecord(record.getLong(0), record.getLong(8), name, record.get(16), record.get(17),
+                record.get(18), actions);
+    }
+
+    // Индекс: заголовок (магическое число, версия, сколько забегов покрыто, число групп),
+    // затем для каждой группы размер и ключи. Пишется во временный файл и переименовывается
+    private void saveIndex() throws IOException {
+        int keys = 0;
+        for (RunIndex index : indexes) {
+            keys += index.size();
+        }
+        ByteBuffer out = ByteBuffer.allocate(16 + indexes.length * 4 + keys * 8);
+        out.putInt(INDEX_MAGIC).putInt(FORMAT_VERSION).putInt(count).putInt(indexes.length);
+        for (RunIndex index : indexes) {
+            out.putInt(index.size());
+            for (int i = 0; i < index.size(); i++) {
+                out.putLong(index.keyAt(i));
+            }
+        }
+        out.flip();
+        try (FileOutputStream stream = new FileOutputStream(indexTempFile)) {
+            FileChannel indexChannel = stream.getChannel();
+            while (out.hasRemaining()) {
+                indexChannel.write(out);
+            }
+        }
+        if (!indexTempFile.renameTo(indexFile)) {
+            throw new IOException("Не удалось заменить " + indexFile);
+        }
+        indexedOnDisk = count;
+    }
+
+    private boolean loadIndex() {
+        if (!indexFile.exists() || indexFile.length() < 16) {
+            return false;
+        }
+        try (FileInputStream stream = new FileInputStream(indexFile)) {
+            ByteBuffer in = ByteBuffer.allocate((int) indexFile.length());
+            FileChannel indexChannel = stream.getChannel();
+            while (in.hasRemaining() && indexChannel.read(in) >= 0) {
+                // читаем файл целиком
+            }
+            in.flip();
+            int covered = in.getInt(8);
+            if (in.getInt(0) != INDEX_MAGIC || in.getInt(4) != FORMAT_VERSION
+                    || in.getInt(12) != indexes.length || covered > count) {
+                return false;
+            }
+            in.position(16);
+            for (int i = 0; i < indexes.length; i++) {
+                int size = in.getInt();
+                if (size < 0 || size > covered) {
+                    return false;
+                }
+                long[] keys = new long[Math.max(16, size + size / 4)];
+                in.asLongBuffer().get(keys, 0, size);
+                in.position(in.position() + size * 8);
+                indexes[i] = new RunIndex(keys, size);
+            }
+            indexedOnDisk = covered;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static byte[] encodeName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= NAME_BYTES) {
+            return bytes;
+        }
+        int end = NAME_BYTES;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        byte[] cut = new byte[end];
+        System.arraycopy(bytes, 0, cut, 0, end);
+        return cut;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.tamagotchiproject.repository;
+
+import java.util.Arrays;
+
+// Отсортированный по возрастанию массив ключей забегов одной группы (режим и персонаж).
+// Ключ: длительность в старших битах, номер забега в младших, причём более ранний забег
+// получает больший ключ и при равной длительности стоит в рейтинге выше
+class RunIndex {
+    static final int ID_BITS = 24;
+    static final int MAX_ID = (1 << ID_BITS) - 1;
+    private static final long MAX_DURATION = (1L << (63 - ID_BITS)) - 1;
+
+    private long[] keys;
+    private int size;
+
+    RunIndex() {
+        this(new long[16], 0);
+    }
+
+    RunIndex(long[] keys, int size) {
+        this.keys = keys;
+        this.size = size;
+    }
+
+    static long key(long duration, int id) {
+        return Math.max(0, Math.min(MAX_DURATION, duration)) << ID_BITS | (MAX_ID - id);
+    }
+
+    static int id(long key) {
+        return MAX_ID - (int) (key & MAX_ID);
+    }
+
+    // Вставка со сдвигом хвоста: один memmove, для 100 тысяч забегов - доли миллисекунды
+    void insert(long key) {
+        int at = lowerBound(key);
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        keys[at] = key;
+        size++;
+    }
+
+    // Добавление без сортировки для быстрой перестройки; после серии вызовов нужен sort()
+    void add(long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = key;
+    }
+
+    void sort() {
+        Arrays.sort(keys, 0, size);
+    }
+
+    // Место в рейтинге (с 1) для забега такой длительности: сколько забегов строго длиннее, плюс один
+    int rank(long duration) {
+        long firstLonger = key(duration + 1, MAX_ID);
+        return size - lowerBound(firstLonger) + 1;
+    }
+
+    // Номера забегов с места offset (с 0) по убыванию длительности
+    int top(int offset, int[] out) {
+        int n = Math.max(0, Math.min(out.length, size - offset));
+        for (int i = 0; i < n; i++) {
+            out[i] = id(keys[size - 1 - offset - i]);
+        }
+        return n;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long keyAt(int i) {
+        return keys[i];
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.tamagotchiproject.repository;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Отложенная запись GameStore на отдельном потоке. Изменения копятся в полях хранилища
+// (вместе с маской изменённых полей), а серия сохранений подряд превращается в одну запись
+// через delayMillis после первого запроса. Если с прошлой записи ничего не изменилось,
+// на диск ничего не пишется. Вызывающий поток никогда не ждёт диска
+public class WriteBehindStore {
+    public interface ErrorHandler {
+        void onWriteFailed(IOException e);
+    }
+
+    private final GameStore store;
+    private final long delayMillis;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicInteger writeCount = new AtomicInteger();
+    private volatile ErrorHandler errorHandler;
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            // Снимаем флаг до записи: изменения во время записи запланируют следующую
+            flushScheduled.set(false);
+            flush();
+        }
+    };
+
+    public WriteBehindStore(GameStore store, long delayMillis) {
+        this.store = store;
+        this.delayMillis = delayMillis;
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "game-store-writer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        pool.setRemoveOnCancelPolicy(true);
+        this.executor = pool;
+    }
+
+    public GameStore getStore() {
+        return store;
+    }
+
+    public void setErrorHandler(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    // Обычное сохранение: запись случится не позже чем через delayMillis, сколько бы запросов ни пришло
+    public void requestFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            executor.schedule(flushTask, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Важные моменты жизненного цикла (уход в фон, конец игры, сброс): пишем сразу, но тоже в фоне.
+    // Уже запланированная отложенная запись потом найдёт хранилище чистым и ничего не сделает.
+    // Результат - true, если всё изменённое к этому моменту лежит на диске
+    public Future<Boolean> flushNow() {
+        return executor.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return flush();
+            }
+        });
+    }
+
+    // Дожидается записи всего, что изменено к этому моменту; false - запись не удалась.
+    // Не для главного потока
+    public boolean flushAndWait() throws InterruptedException {
+        try {
+            return flushNow().get();
+        } catch (ExecutionException e) {
+            // flush() сам перехватывает ошибки записи
+            return false;
+        }
+    }
+
+    // Дописывает всё изменённое и останавливает поток записи. Не для главного потока
+    public void close() throws InterruptedException {
+        flushAndWait();
+        executor.shutdown();
+    }
+
+    // Сколько раз файл действительно был записан
+    public int getWriteCount() {
+        return writeCount.get();
+    }
+
+    private boolean flush() {
+        try {
+            if (store.saveIfDirty()) {
+                writeCount.incrementAndGet();
+            }
+            return true;
+        } catch (IOException e) {
+            ErrorHandler handler = errorHandler;
+            if (handler != null) {
+                handler.onWriteFailed(e);
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.tamagotchiproject.ui;
+
+import android.animation.ValueAnimator;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+
+import java.nio.ByteBuffer;
+
+// Размытый цветной круг за питомцем. Раньше это были пять PNG по 3 МБ, отличавшихся только цветом;
+// теперь форма - одна маска прозрачности 256x256 (ALPHA_8, общая для всех экземпляров), которая
+// при рисовании окрашивается цветом кисти. Смена цвета меняет только кисть, поэтому переход
+// ничего не декодирует и не перестраивает, а на GPU маска остаётся одной текстурой
+public class CircleBackgroundDrawable extends Drawable {
+    public static final long COLOR_ANIMATION_MILLIS = 300;
+    // Форма круга: розовый PNG был экспортирован со свечением правее и чуть крупнее остальных
+    public static final int SHAPE_DEFAULT = 0;
+    public static final int SHAPE_PINK = 1;
+
+    private static final int MASK_SIZE = 256;
+    // Геометрия из исходных PNG (обрезка centerCrop) по формам: центр правее середины,
+    // радиус свечения - доля большей стороны. Розовая подобрана по его эталону (1556x1752)
+    private static final float[] CENTER_SHIFT_X = {0.0234f, 0.064f};
+    private static final float[] RADIUS = {0.5598f, 0.574f};
+    // Профиль прозрачности от центра (0) до края свечения (1), снят с исходных PNG
+    private static final float[] PROFILE_AT = {
+            0f, 0.091f, 0.182f, 0.273f, 0.364f, 0.455f, 0.545f, 0.636f, 0.727f, 0.818f, 0.909f, 1f
+    };
+    private static final int[] PROFILE_ALPHA = {254, 252, 241, 220, 187, 146, 101, 60, 31, 12, 3, 0};
+
+    private static Bitmap mask;
+
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+    private final RectF destination = new RectF();
+    private int color;
+    private int alpha = 255;
+    private int shape;
+    // Текущая геометрия; во время перехода между формами она промежуточная
+    private float centerShiftX;
+    private float radius;
+    private ValueAnimator animator;
+
+    public CircleBackgroundDrawable(int color) {
+        this(color, SHAPE_DEFAULT);
+    }
+
+    public CircleBackgroundDrawable(int color, int shape) {
+        this.color = color;
+        this.shape = shape;
+        this.centerShiftX = CENTER_SHIFT_X[shape];
+        this.radius = RADIUS[shape];
+        applyPaintColor();
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    public int getShape() {
+        return shape;
+    }
+
+    // Мгновенная смена цвета
+    public void setColor(int color) {
+        setColor(color, shape);
+    }
+
+    public void setColor(int color, int shape) {
+        if (animator != null) {
+            animator.cancel();
+            animator = null;
+        }
+        updateShape(shape, CENTER_SHIFT_X[shape], RADIUS[shape]);
+        updateColor(color);
+    }
+
+    // Плавный переход от текущего цвета (в том числе с середины прошлого перехода)
+    public void animateColor(int target) {
+        animateColor(target, shape);
+    }
+
+    // То же со сменой формы: центр и радиус сдвигаются вместе с цветом
+    public void animateColor(int target, final int targetShape) {
+        if (animator != null) {
+            animator.cancel();
+            animator = null;
+        }
+        if (target == color && targetShape == shape
+                && centerShiftX == CENTER_SHIFT_X[shape] && radius == RADIUS[shape]) {
+            return;
+        }
+        final float fromShiftX = centerShiftX;
+        final float fromRadius = radius;
+        final float toShiftX = CENTER_SHIFT_X[targetShape];
+        final float toRadius = RADIUS[targetShape];
+        shape = targetShape;
+        animator = ValueAnimator.ofArgb(color, target);
+        animator.setDuration(COLOR_ANIMATION_MILLIS);
+        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                float fraction = animation.getAnimatedFraction();
+                updateShape(targetShape, fromShiftX + (toShiftX - fromShiftX) * fraction,
+                        fromRadius + (toRadius - fromRadius) * fraction);
+                updateColor((int) animation.getAnimatedValue());
+            }
+        });
+        animator.start();
+    }
+
+    private void updateShape(int shape, float centerShiftX, float radius) {
+        this.shape = shape;
+        if (this.centerShiftX != centerShiftX || this.radius != radius) {
+            this.centerShiftX = centerShiftX;
+            this.radius = radius;
+            updateDestination(getBounds());
+            invalidateSelf();
+        }
+    }
+
+    private void updateColor(int color) {
+        if (this.color != color) {
+            this.color = color;
+            applyPaintColor();
+            invalidateSelf();
+        }
+    }
+
+    private void applyPaintColor() {
+        paint.setColor(color);
+        paint.setAlpha(Color.alpha(color) * alpha / 255);
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        updateDestination(bounds);
+    }
+
+    private void updateDestination(Rect bounds) {
+        float size = Math.max(bounds.width(), bounds.height());
+        float radius = this.radius * size;
+        float centerX = bounds.exactCenterX() + centerShiftX * size;
+        float centerY = bounds.exactCenterY();
+        destination.set(centerX - radius, centerY - radius, centerX + radius, centerY + radius);
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        int saved = canvas.save();
+        canvas.clipRect(getBounds());
+        // Маска ALPHA_8 рисуется цветом кисти
+        canvas.drawBitmap(getMask(), null, destination, paint);
+        canvas.restoreToCount(saved);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (this.alpha != alpha) {
+            this.alpha = alpha;
+            applyPaintColor();
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public int getAlpha() {
+        return alpha;
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        paint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    private static synchronized Bitmap getMask() {
+        if (mask == null) {
+            ByteBuffer pixels = ByteBuffer.allocate(MASK_SIZE * MASK_SIZE);
+            float half = MASK_SIZE / 2f;
+            for (int y = 0; y < MASK_SIZE; y++) {
+                for (int x = 0; x < MASK_SIZE; x++) {
+                    float distance = (float) Math.hypot(x + 0.5f - half, y + 0.5f - half) / half;
+                    pixels.put((byte) Math.round(profileAlpha(distance)));
+                }
+            }
+            pixels.rewind();
+            mask = Bitmap.createBitmap(MASK_SIZE, MASK_SIZE, Bitmap.Config.ALPHA_8);
+            mask.copyPixelsFromBuffer(pixels);
+        }
+        return mask;
+    }
+
+    // Линейная интерполяция профиля; за краем свечения прозрачно
+    static float profileAlpha(float distance) {
+        for (int i = 1; i < PROFILE_AT.length; i++) {
+            if (distance <= PROFILE_AT[i]) {
+                float t = (distance - PROFILE_AT[i - 1]) / (PROFILE_AT[i] - PROFILE_AT[i - 1]);
+                return PROFILE_ALPHA[i - 1] + (PROFILE_ALPHA[i] - PROFILE_ALPHA[i - 1]) * t;
+            }
+        }
+        return 0;
+    }
+}
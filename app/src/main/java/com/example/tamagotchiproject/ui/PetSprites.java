@@ -0,0 +1,132 @@
+package com.example.tamagotchiproject.ui;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.tamagotchiproject.R;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Общий для всех экранов кэш спрайтов питомцев. Спрайты 512x512 лежат в drawable без плотности,
+// и Resources растягивает каждый под плотность экрана (на xxhdpi - 9 МБ). Здесь кадр декодируется
+// один раз в исходном размере в аппаратный Bitmap (пиксели вне кучи), а экраны получают лёгкие
+// BitmapDrawable поверх него; масштабирует уже GPU. Кадры выбранного персонажа готовятся заранее в фоне
+public final class PetSprites {
+    public interface Callback {
+        void onLoaded(Drawable drawable);
+    }
+
+    public static final int NORMAL = 0;
+    public static final int SAD = 1;
+    public static final int LEAVE = 2;
+
+    private static final int CHARACTERS = 3;
+    private static final int FRAMES = 3;
+    // Персонажи 1-3: обычный, грустный и уходящий питомец
+    private static final int[][] RESOURCES = {
+            {R.drawable.panda, R.drawable.panda_sad, R.drawable.panda_leave},
+            {R.drawable.cat, R.drawable.cat_sad, R.drawable.cat_leave},
+            {R.drawable.frog, R.drawable.frog_sad, R.drawable.frog_leave}
+    };
+
+    private static PetSprites instance;
+
+    private final Resources resources;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Bitmap[][] bitmaps = new Bitmap[CHARACTERS][FRAMES];
+    private final ExecutorService decoder = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "sprite-decoder");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    public static synchronized PetSprites get(Context context) {
+        if (instance == null) {
+            instance = new PetSprites(context.getApplicationContext().getResources());
+        }
+        return instance;
+    }
+
+    private PetSprites(Resources resources) {
+        this.resources = resources;
+    }
+
+    // Декодирует все три кадра персонажа в фоне; уже готовые кадры не трогает
+    public void prefetch(final int character) {
+        decoder.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (int frame = 0; frame < FRAMES; frame++) {
+                    getBitmap(character, frame);
+                }
+            }
+        });
+    }
+
+    // Кадр для экрана, которому он нужен не сразу: готовый отдаётся тут же, иначе декодируется
+    // в фоне, и callback получает его на главном потоке
+    public void load(final int character, final int frame, final Callback callback) {
+        Bitmap cached = getCached(character, frame);
+        if (cached != null) {
+            callback.onLoaded(new BitmapDrawable(resources, cached));
+            return;
+        }
+        decoder.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap bitmap = getBitmap(character, frame);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onLoaded(new BitmapDrawable(resources, bitmap));
+                    }
+                });
+            }
+        });
+    }
+
+    // Новый Drawable поверх общего кадра; при промахе кадр декодируется сразу
+    public Drawable getDrawable(int character, int frame) {
+        return new BitmapDrawable(resources, getBitmap(character, frame));
+    }
+
+    // Декодирование идёт вне блокировки, чтобы главный поток не ждал чужой предзагрузки.
+    // Если кадр одновременно декодировали два потока, остаётся первый опубликованный
+    private Bitmap getBitmap(int character, int frame) {
+        Bitmap bitmap = getCached(character, frame);
+        if (bitmap != null) {
+            return bitmap;
+        }
+        int index = characterIndex(character);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inScaled = false;
+        options.inPreferredConfig = Bitmap.Config.HARDWARE;
+        Bitmap decoded = BitmapFactory.decodeResource(resources, RESOURCES[index][frame], options);
+        synchronized (this) {
+            if (bitmaps[index][frame] == null) {
+                bitmaps[index][frame] = decoded;
+            }
+            return bitmaps[index][frame];
+        }
+    }
+
+    private synchronized Bitmap getCached(int character, int frame) {
+        return bitmaps[characterIndex(character)][frame];
+    }
+
+    // Неизвестный персонаж показывается пандой, как и раньше
+    private static int characterIndex(int character) {
+        return character >= 1 && character <= CHARACTERS ? character - 1 : 0;
+    }
+}
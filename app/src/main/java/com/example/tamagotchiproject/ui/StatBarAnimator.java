@@ -0,0 +1,109 @@
+package com.example.tamagotchiproject.ui;
+
+import android.animation.ValueAnimator;
+import android.view.Choreographer;
+import android.widget.ProgressBar;
+
+// Плавное движение всех шкал характеристик от одного обратного вызова кадра. Новая цель во время
+// движения не заводит новый аниматор: шкала продолжает с того значения, которое сейчас показывает.
+// На кадр ничего не выделяется, а когда все шкалы дошли до цели, обратный вызов снимается.
+// Только главный поток
+public final class StatBarAnimator implements Choreographer.FrameCallback {
+    public static final long DURATION_MILLIS = 500;
+
+    private final ProgressBar[] bars;
+    private final float[] from;
+    private final int[] to;
+    private final long[] startedAt;
+    private final boolean[] moving;
+    private boolean frameScheduled;
+
+    public StatBarAnimator(ProgressBar... bars) {
+        this.bars = bars;
+        this.from = new float[bars.length];
+        this.to = new int[bars.length];
+        this.startedAt = new long[bars.length];
+        this.moving = new boolean[bars.length];
+        for (int i = 0; i < bars.length; i++) {
+            to[i] = bars[i].getProgress();
+        }
+    }
+
+    public void animateTo(ProgressBar bar, int target) {
+        int i = indexOf(bar);
+        if (target == to[i]) {
+            return;
+        }
+        long now = System.nanoTime();
+        // Старт - текущее положение, даже если шкала ещё не доехала до прошлой цели
+        from[i] = moving[i] ? valueAt(i, now) : bars[i].getProgress();
+        to[i] = target;
+        startedAt[i] = now;
+        moving[i] = true;
+        if (!frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        boolean anyMoving = false;
+        for (int i = 0; i < bars.length; i++) {
+            if (!moving[i]) {
+                continue;
+            }
+            long elapsed = frameTimeNanos - startedAt[i];
+            int value;
+            if (elapsed >= durationNanos()) {
+                value = to[i];
+                moving[i] = false;
+            } else {
+                value = Math.round(valueAt(i, frameTimeNanos));
+                anyMoving = true;
+            }
+            if (bars[i].getProgress() != value) {
+                bars[i].setProgress(value);
+            }
+        }
+        if (anyMoving) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    // Останавливает движение, оставляя шкалы как есть (экран закрывается)
+    public void cancel() {
+        if (frameScheduled) {
+            frameScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+        for (int i = 0; i < bars.length; i++) {
+            moving[i] = false;
+            to[i] = bars[i].getProgress();
+        }
+    }
+
+    // Та же кривая, что у ValueAnimator по умолчанию: разгон и торможение
+    private float valueAt(int i, long timeNanos) {
+        long duration = durationNanos();
+        float t = duration == 0 ? 1f : Math.max(0f, Math.min(1f, (float) (timeNanos - startedAt[i]) / duration));
+        float eased = (float) (Math.cos((t + 1) * Math.PI) / 2.0) + 0.5f;
+        return from[i] + (to[i] - from[i]) * eased;
+    }
+
+    // Учитываем масштаб анимаций из настроек разработчика, как это делает ValueAnimator
+    private static long durationNanos() {
+        return (long) (DURATION_MILLIS * 1_000_000L * ValueAnimator.getDurationScale());
+    }
+
+    private int indexOf(ProgressBar bar) {
+        for (int i = 0; i < bars.length; i++) {
+            if (bars[i] == bar) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Шкала не принадлежит аниматору");
+    }
+}
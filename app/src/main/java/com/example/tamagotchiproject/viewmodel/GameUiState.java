@@ -0,0 +1,118 @@
+package com.example.tamagotchiproject.viewmodel;
+
+import com.example.tamagotchiproject.engine.PackedStats;
+
+// Всё, что показывает экран игры, одним неизменяемым значением: четыре шкалы, настроение питомца,
+// цвет фона, текст таймера, пауза и сложность. reduce() возвращает прежний объект, если на экране
+// ничего не меняется, а changesSince() говорит, какие именно поля отличаются от показанных
+public final class GameUiState {
+    public static final int CHANGED_HUNGER = 1;
+    public static final int CHANGED_HAPPINESS = 1 << 1;
+    public static final int CHANGED_CLEANLINESS = 1 << 2;
+    public static final int CHANGED_ENERGY = 1 << 3;
+    public static final int CHANGED_MOOD = 1 << 4;
+    public static final int CHANGED_BACKGROUND = 1 << 5;
+    public static final int CHANGED_TIMER = 1 << 6;
+    public static final int CHANGED_PAUSED = 1 << 7;
+    public static final int CHANGED_DIFFICULTY = 1 << 8;
+    public static final int CHANGED_BARS = CHANGED_HUNGER | CHANGED_HAPPINESS | CHANGED_CLEANLINESS | CHANGED_ENERGY;
+    public static final int CHANGED_ALL = (1 << 9) - 1;
+
+    public static final int MOOD_NORMAL = 0;
+    public static final int MOOD_SAD = 1;
+
+    // Фон по первой просевшей характеристике: энергия, сытость, чистота, счастье
+    public static final int BACKGROUND_NORMAL = 0;
+    public static final int BACKGROUND_TIRED = 1;
+    public static final int BACKGROUND_HUNGRY = 2;
+    public static final int BACKGROUND_DIRTY = 3;
+    public static final int BACKGROUND_BORED = 4;
+
+    private static final int LOW = 40;
+
+    private final int stats;
+    private final int mood;
+    private final int background;
+    private final long elapsedSeconds;
+    private final String timerText;
+    private final boolean paused;
+    private final int difficultyLevel;
+
+    private GameUiState(int stats, long elapsedSeconds, String timerText, boolean paused, int difficultyLevel) {
+        this.stats = stats;
+        this.mood = PackedStats.isAnyStatLow(stats) ? MOOD_SAD : MOOD_NORMAL;
+        this.background = backgroundOf(stats);
+        this.elapsedSeconds = elapsedSeconds;
+        this.timerText = timerText;
+        this.paused = paused;
+        this.difficultyLevel = difficultyLevel;
+    }
+
+    // Новое состояние экрана; previous (может быть null) возвращается как есть, если ничего не изменилось.
+    // Текст таймера форматируется, только когда сменилась секунда
+    public static GameUiState reduce(GameUiState previous, int stats, long elapsedMillis, boolean paused,
+                                     int difficultyLevel) {
+        long seconds = Math.max(0, elapsedMillis) / 1000;
+        if (previous == null) {
+            return new GameUiState(stats, seconds, formatTime(seconds), paused, difficultyLevel);
+        }
+        if (previous.stats == stats && previous.elapsedSeconds == seconds && previous.paused == paused
+                && previous.difficultyLevel == difficultyLevel) {
+            return previous;
+        }
+        String timerText = previous.elapsedSeconds == seconds ? previous.timerText : formatTime(seconds);
+        return new GameUiState(stats, seconds, timerText, paused, difficultyLevel);
+    }
+
+    // Поля, которые отличаются от shown (null - экран ещё ничего не показывал)
+    public int changesSince(GameUiState shown) {
+        if (shown == null) {
+            return CHANGED_ALL;
+        }
+        int changes = 0;
+        if (getHunger() != shown.getHunger()) changes |= CHANGED_HUNGER;
+        if (getHappiness() != shown.getHappiness()) changes |= CHANGED_HAPPINESS;
+        if (getCleanliness() != shown.getCleanliness()) changes |= CHANGED_CLEANLINESS;
+        if (getEnergy() != shown.getEnergy()) changes |= CHANGED_ENERGY;
+        if (mood != shown.mood) changes |= CHANGED_MOOD;
+        if (background != shown.background) changes |= CHANGED_BACKGROUND;
+        if (elapsedSeconds != shown.elapsedSeconds) changes |= CHANGED_TIMER;
+        if (paused != shown.paused) changes |= CHANGED_PAUSED;
+        if (difficultyLevel != shown.difficultyLevel) changes |= CHANGED_DIFFICULTY;
+        return changes;
+    }
+
+    public static int backgroundOf(int stats) {
+        if (PackedStats.energy(stats) < LOW) return BACKGROUND_TIRED;
+        if (PackedStats.hunger(stats) < LOW) return BACKGROUND_HUNGRY;
+        if (PackedStats.cleanliness(stats) < LOW) return BACKGROUND_DIRTY;
+        if (PackedStats.happiness(stats) < LOW) return BACKGROUND_BORED;
+        return BACKGROUND_NORMAL;
+    }
+
+    // ЧЧ:ММ:СС без String.format
+    static String formatTime(long seconds) {
+        long hours = seconds / 3600;
+        int minutes = (int) (seconds / 60 % 60);
+        int secs = (int) (seconds % 60);
+        StringBuilder text = new StringBuilder(8);
+        if (hours < 10) text.append('0');
+        text.append(hours).append(':');
+        if (minutes < 10) text.append('0');
+        text.append(minutes).append(':');
+        if (secs < 10) text.append('0');
+        return text.append(secs).toString();
+    }
+
+    public int getStats() { return stats; }
+    public int getHunger() { return PackedStats.hunger(stats); }
+    public int getHappiness() { return PackedStats.happiness(stats); }
+    public int getCleanliness() { return PackedStats.cleanliness(stats); }
+    public int getEnergy() { return PackedStats.energy(stats); }
+    public int getMood() { return mood; }
+    public int getBackground() { return background; }
+    public long getElapsedSeconds() { return elapsedSeconds; }
+    public String getTimerText() { return timerText; }
+    public boolean isPaused() { return paused; }
+    public int getDifficultyLevel() { return difficultyLevel; }
+}
@@ -1,221 +1,306 @@
 package com.example.tamagotchiproject.viewmodel;
 
 import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import com.example.tamagotchiproject.engine.ActionBatch;
+import com.example.tamagotchiproject.engine.GameAction;
+import com.example.tamagotchiproject.engine.GameActor;
+import com.example.tamagotchiproject.engine.GameClock;
+import com.example.tamagotchiproject.engine.GameSnapshot;
+import com.example.tamagotchiproject.engine.SimulationEngine;
+import com.example.tamagotchiproject.engine.StatTimeSeries;
+import com.example.tamagotchiproject.engine.TimingWheel;
 import com.example.tamagotchiproject.model.*;
+import com.example.tamagotchiproject.repository.GameJournal;
 import com.example.tamagotchiproject.repository.GameRepository;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Arrays;
 
 public class GameViewModel extends AndroidViewModel {
     private GameRepository repository;
-    private Timer gameTimer;
-    private Timer statTimer;
+    // Один общий поток таймеров на все игры; у каждой игры - один переиспользуемый таймер
+    private final TimingWheel.Timeout wakeTimeout = TimingWheel.shared().newTimeout(new Runnable() {
+        @Override
+        public void run() {
+            onWake();
+        }
+    });
+    private boolean timersRunning;
+
+    // Все изменения состояния игры проходят через одного писателя; здесь читаем только его снимки.
+    // Пока игра загружается, его нет
+    private volatile GameActor actor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private boolean cleared;
+
+    // Нажатия за один кадр копятся здесь (только главный поток) и применяются одной командой
+    private final ActionBatch pendingActions = new ActionBatch();
+    private boolean actionsFrameScheduled;
+    private final Choreographer.FrameCallback flushActionsCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            actionsFrameScheduled = false;
+            flushPendingActions();
+        }
+    };
 
-    // Коэффициенты уменьшения для разных показателей
-    private final float HUNGER_DECREASE_RATE = 1.2f;
-    private final float HAPPINESS_DECREASE_RATE = 1.0f;
-    private final float CLEANLINESS_DECREASE_RATE = 0.8f;
-    private final float ENERGY_DECREASE_RATE = 0.9f;
+    // Поле ниже трогает только слушатель снимков (его вызовы идут строго по очереди)
+    private boolean gameOverReported;
 
-    private int decreaseCounter = 0;
-    private int difficultyLevel = 1;
     private boolean isNewGame = true;
+    // Сколько раз нажимали каждое действие (по кодам GameAction) - для истории забегов
+    private final int[] actionCounts = new int[GameAction.REST + 1];
+    // Характеристики и сложность за сессию; пишется из слушателя снимков без выделения памяти
+    private final StatTimeSeries statHistory = new StatTimeSeries();
 
-    private MutableLiveData<PetStats> petStats = new MutableLiveData<>();
     private MutableLiveData<GameSettings> gameSettings = new MutableLiveData<>();
     private MutableLiveData<GameState> gameState = new MutableLiveData<>();
-    private MutableLiveData<String> timerText = new MutableLiveData<>();
+    // Состояние экрана собирается из снимков актёра под uiLock и публикуется одним потоком.
+    // postValue склеивает значения, которые экран не успел показать
+    private final Object uiLock = new Object();
+    private GameUiState reducedUiState;
+    private MutableLiveData<GameUiState> uiState = new MutableLiveData<GameUiState>() {
+        @Override
+        protected void onActive() {
+            // Экран снова виден: сразу показываем последний снимок и возобновляем посекундное обновление
+            reduceLatestSnapshot();
+            scheduleNextWake();
+        }
+    };
     private MutableLiveData<Boolean> isGameOver = new MutableLiveData<>(false);
-    private MutableLiveData<Integer> difficultyLevelLive = new MutableLiveData<>(1);
+    private MutableLiveData<Boolean> isLoading = new MutableLiveData<>(true);
+    // Сколько процентов прошлых забегов этого режима короче законченного; -1 - сравнивать не с чем
+    private MutableLiveData<Integer> percentBeaten = new MutableLiveData<>(-1);
 
     public GameViewModel(Application application) {
         super(application);
-        repository = new GameRepository(application);
+        repository = GameRepository.getInstance(application);
         loadGameState();
     }
 
+    // Чтение сохранения и перемотка пропущенного времени идут в фоне; экран тем временем
+    // уже нарисован и показывает загрузку
     private void loadGameState() {
-        GameState loadedState = repository.loadGameState(isNewGame);
+        isLoading.setValue(true);
+        repository.loadGameStateAsync(isNewGame, new GameRepository.LoadCallback<GameState>() {
+            @Override
+            public void onLoaded(final GameState loadedState) {
+                final SimulationEngine engine = new SimulationEngine(loadedState.getGameSettings().getGameSpeed(), loadedState.getRngSeed());
+                engine.setDifficultySchedule(loadedState.getDifficultySchedule());
+                engine.load(loadedState.getPetStats().getPacked(), loadedState.getElapsedTime());
+                // Журнал тоже открываем здесь: это отображение файла в память
+                final GameJournal journal = repository.getJournal();
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onGameLoaded(loadedState, engine, journal);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onGameLoaded(GameState loadedState, SimulationEngine engine, GameJournal journal) {
+        if (cleared) {
+            return;
+        }
         gameState.setValue(loadedState);
-        petStats.setValue(loadedState.getPetStats());
         gameSettings.setValue(loadedState.getGameSettings());
 
         // Обновляем локальные переменные
-        difficultyLevel = loadedState.getDifficultyLevel();
-        difficultyLevelLive.setValue(difficultyLevel);
         isNewGame = loadedState.isNewGame();
+        statHistory.append(engine.getElapsedTime(), engine.getStats(), engine.getDifficultyLevel());
 
-        startTimers();
-    }
-
-    private void startTimers() {
-        stopTimers();
-
-        // Таймер обновления времени
-        gameTimer = new Timer();
-        gameTimer.scheduleAtFixedRate(new TimerTask() {
+        GameActor actor = new GameActor(engine);
+        // Каждое изменение сразу пишется в журнал, чтобы убийство процесса между сохранениями ничего не стоило
+        actor.setJournal(journal);
+        actor.setListener(new GameActor.Listener() {
             @Override
-            public void run() {
-                GameState currentState = gameState.getValue();
-                if (currentState != null && !currentState.isPaused() && !currentState.isGameOver()) {
-                    currentState.updateElapsedTime();
-
-                    // Обновляем уровень сложности
-                    updateDifficultyLevel(currentState.getElapsedTime());
+            public void onSnapshot(GameSnapshot snapshot) {
+                onStateChanged(snapshot);
+            }
+        });
+        this.actor = actor;
+        reduceUiState(actor.snapshot());
 
-                    String formattedTime = formatTime(currentState.getElapsedTime());
-                    timerText.postValue(formattedTime);
+        startTimers();
+        isLoading.setValue(false);
+        // Нажатия, сделанные во время загрузки, применяются к загруженной игре
+        if (!pendingActions.isEmpty()) {
+            flushPendingActions();
+        }
+    }
 
-                    // Проверяем конец игры
-                    if (currentState.isAnyStatCritical()) {
-                        // ВАЖНО: Сохраняем лучшее время перед окончанием
-                        saveBestTime();
+    // Реакция на новый снимок: публикуем то, что изменилось, проверяем конец игры и
+    // переставляем таймер. Вызывается на том потоке, который применил команды
+    private void onStateChanged(GameSnapshot snapshot) {
+        statHistory.append(snapshot.getElapsedTime(), snapshot.getStats(), snapshot.getDifficultyLevel());
+        reduceUiState(snapshot);
 
-                        isGameOver.postValue(true);
-                        stopTimers();
-                        repository.markGameOver();
-                    }
-                }
-            }
-        }, 0, 1000);
+        if (!snapshot.isAnyStatCritical()) {
+            gameOverReported = false;
+            scheduleNextWake();
+            return;
+        }
 
-        // Таймер уменьшения характеристик
-        statTimer = new Timer();
-        statTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                GameState currentState = gameState.getValue();
-                if (currentState != null && !currentState.isPaused() && !currentState.isGameOver()) {
-                    decreaseStats(currentState);
-                    gameState.postValue(currentState);
-                    petStats.postValue(currentState.getPetStats());
+        if (!gameOverReported) {
+            gameOverReported = true;
+            stopTimers();
+            // Снимок мог применить главный поток (нажатие), поэтому сохранения, сравнение
+            // с прошлыми забегами и запись в историю уходят на фоновый поток репозитория
+            final GameSnapshot finished = snapshot;
+            repository.getBackgroundExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    reportGameOver(finished);
                 }
-            }
-        }, 1000, 1000);
+            });
+        }
     }
 
-    private void decreaseStats(GameState gameState) {
-        GameSettings settings = gameState.getGameSettings();
-        PetStats stats = gameState.getPetStats();
-
-        decreaseCounter++;
-        int interval = (settings.getGameSpeed() == 0) ? 30 : 1;
+    private void reportGameOver(GameSnapshot snapshot) {
+        // ВАЖНО: Сохраняем лучшее время перед окончанием
+        saveBestTime(snapshot.getElapsedTime());
 
-        if (decreaseCounter >= interval) {
-            decreaseCounter = 0;
+        // Сравниваем с прошлыми забегами до того, как этот попадёт в историю: запись забега
+        // встанет в ту же очередь позже. Публикуется раньше isGameOver, поэтому диалог конца игры уже его видит
+        GameSettings settings = gameSettings.getValue();
+        if (settings != null) {
+            percentBeaten.postValue(repository.percentBeaten(settings.getGameSpeed(), snapshot.getElapsedTime()));
+        }
 
-            int baseDecrease = difficultyLevel;
+        isGameOver.postValue(true);
+        repository.markGameOver();
+        recordRun(snapshot);
+    }
 
-            int hungerDecrease = Math.max(1, Math.round(baseDecrease * HUNGER_DECREASE_RATE));
-            int happinessDecrease = Math.max(1, Math.round(baseDecrease * HAPPINESS_DECREASE_RATE));
-            int cleanlinessDecrease = Math.max(1, Math.round(baseDecrease * CLEANLINESS_DECREASE_RATE));
-            int energyDecrease = Math.max(1, Math.round(baseDecrease * ENERGY_DECREASE_RATE));
+    private void recordRun(GameSnapshot snapshot) {
+        GameState currentState = gameState.getValue();
+        if (currentState == null) {
+            return;
+        }
+        GameSettings settings = currentState.getGameSettings();
+        int[] counts;
+        synchronized (actionCounts) {
+            counts = actionCounts.clone();
+        }
+        repository.recordRun(new RunRecord(System.currentTimeMillis(), snapshot.getElapsedTime(),
+                settings.getPetName(), settings.getCharacter(), settings.getGameSpeed(),
+                RunRecord.causeOf(snapshot.getStats()), counts));
+    }
 
-            // Случайные увеличения как в оригинале
-            if (Math.random() > 0.7) hungerDecrease++;
-            if (Math.random() > 0.7) happinessDecrease++;
-            if (Math.random() > 0.5) cleanlinessDecrease++;
-            if (Math.random() > 0.6) energyDecrease++;
+    // Новое состояние экрана публикуется, только если на экране что-то изменится. Всё, включая
+    // время и паузу, берётся из неизменяемого снимка: изменяемый GameState здесь не читается
+    private void reduceUiState(GameSnapshot snapshot) {
+        synchronized (uiLock) {
+            GameUiState next = GameUiState.reduce(reducedUiState, snapshot.getStats(), snapshot.getElapsedTime(),
+                    snapshot.isPaused(), snapshot.getDifficultyLevel());
+            if (next != reducedUiState) {
+                reducedUiState = next;
+                uiState.postValue(next);
+            }
+        }
+    }
 
-            // Уменьшаем характеристики
-            stats.setHunger(stats.getHunger() - hungerDecrease);
-            stats.setHappiness(stats.getHappiness() - happinessDecrease);
-            stats.setCleanliness(stats.getCleanliness() - cleanlinessDecrease);
-            stats.setEnergy(stats.getEnergy() - energyDecrease);
+    private void reduceLatestSnapshot() {
+        GameActor current = actor;
+        if (current != null) {
+            reduceUiState(current.snapshot());
         }
     }
 
-    private void updateDifficultyLevel(long elapsedTime) {
-        long minutes = elapsedTime / 60000;
-        int newLevel;
-
-        if (minutes < 1) {
-            newLevel = 1;
-        } else if (minutes < 2) {
-            newLevel = 2;
-        } else if (minutes < 5) {
-            newLevel = 3;
-        } else if (minutes < 10) {
-            newLevel = 4;
-        } else {
-            newLevel = 5;
+    private synchronized void startTimers() {
+        timersRunning = true;
+        scheduleNextWake();
+    }
+
+    // Вместо опроса раз в секунду спим до ближайшего момента, когда что-то изменится:
+    // шаг уменьшения, смена сложности или (если на таймер кто-то смотрит) смена секунды
+    private synchronized void scheduleNextWake() {
+        if (!timersRunning || actor == null) {
+            return;
         }
 
-        if (newLevel != difficultyLevel) {
-            difficultyLevel = newLevel;
-            difficultyLevelLive.postValue(difficultyLevel);
+        GameSnapshot snapshot = actor.snapshot();
+        if (snapshot.isPaused() || snapshot.isGameOver()) {
+            // После выхода из паузы или сброса новый снимок снова запланирует пробуждение
+            return;
         }
-    }
 
-    private String formatTime(long milliseconds) {
-        long seconds = milliseconds / 1000;
-        long minutes = seconds / 60;
-        long hours = minutes / 60;
+        long delay = Math.max(0, snapshot.getNextEventAt() - GameClock.SYSTEM.now());
+        GameState currentState = gameState.getValue();
+        if (currentState != null && uiState.hasActiveObservers()) {
+            long untilNextSecond = 1000 - currentState.getElapsedTime() % 1000;
+            delay = Math.min(delay, untilNextSecond);
+        }
 
-        seconds = seconds % 60;
-        minutes = minutes % 60;
+        // Повторная постановка просто переставляет тот же таймер
+        wakeTimeout.schedule(delay);
+    }
 
-        return String.format("%02d:%02d:%02d", hours, minutes, seconds);
+    private void onWake() {
+        // Сама симуляция живёт в SimulationEngine за GameActor; новый снимок придёт в onStateChanged
+        // и заодно обновит таймер на экране
+        actor.tick();
     }
 
     public void feedPet() {
-        updateStats(stats -> {
-            stats.setHunger(Math.min(100, stats.getHunger() + 20));
-            stats.setEnergy(Math.min(100, stats.getEnergy() + 5));
-            return stats;
-        });
+        enqueueAction(GameAction.FEED);
     }
 
     public void washPet() {
-        updateStats(stats -> {
-            stats.setCleanliness(Math.min(100, stats.getCleanliness() + 25));
-            stats.setHappiness(Math.min(100, stats.getHappiness() + 5));
-            return stats;
-        });
+        enqueueAction(GameAction.WASH);
     }
     public void saveBestTimeNow() {
         saveBestTime();
     }
 
+    public long getBestTime(int gameSpeed) {
+        return repository.getBestTime(gameSpeed);
+    }
+
     public void playWithPet() {
-        updateStats(stats -> {
-            stats.setHappiness(Math.min(100, stats.getHappiness() + 20));
-            stats.setEnergy(Math.max(0, stats.getEnergy() - 10));
-            return stats;
-        });
+        enqueueAction(GameAction.PLAY);
     }
 
     public void restPet() {
-        updateStats(stats -> {
-            stats.setEnergy(Math.min(100, stats.getEnergy() + 30));
-            stats.setHunger(Math.max(0, stats.getHunger() - 5));
-            return stats;
-        });
+        enqueueAction(GameAction.REST);
     }
 
-    private void updateStats(StatsUpdater updater) {
-        PetStats currentStats = petStats.getValue();
-        if (currentStats != null) {
-            PetStats newStats = updater.update(currentStats);
-            petStats.setValue(newStats);
-
-            // Обновляем GameState
-            GameState currentState = gameState.getValue();
-            if (currentState != null) {
-                currentState.setPetStats(newStats);
-                gameState.setValue(currentState);
-            }
+    // Сколько бы раз ни нажали за кадр, состояние меняется и публикуется один раз
+    private void enqueueAction(int action) {
+        synchronized (actionCounts) {
+            actionCounts[action]++;
+        }
+        pendingActions.add(action);
+        if (!actionsFrameScheduled) {
+            actionsFrameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(flushActionsCallback);
         }
     }
 
+    private void flushPendingActions() {
+        if (actionsFrameScheduled) {
+            actionsFrameScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(flushActionsCallback);
+        }
+        if (actor == null) {
+            return;
+        }
+        actor.apply(pendingActions);
+        pendingActions.clear();
+    }
+
     public void pauseGame() {
         GameState currentState = gameState.getValue();
         if (currentState != null) {
             currentState.pauseGame();
+            actor.pause();
             gameState.setValue(currentState);
             // Сохраняем состояние при паузе
             saveGame();
@@ -226,6 +311,7 @@ public class GameViewModel extends AndroidViewModel {
         GameState currentState = gameState.getValue();
         if (currentState != null) {
             currentState.resumeGame();
+            actor.resume();
             gameState.setValue(currentState);
         }
     }
@@ -234,33 +320,35 @@ public class GameViewModel extends AndroidViewModel {
         GameState currentState = gameState.getValue();
         if (currentState != null) {
             currentState.resetGame();
+            // Нажатия, сделанные до сброса, к новой игре не относятся
+            pendingActions.clear();
+            synchronized (actionCounts) {
+                Arrays.fill(actionCounts, 0);
+            }
+            statHistory.clear();
             gameState.setValue(currentState);
-            petStats.setValue(currentState.getPetStats());
             isGameOver.setValue(false);
             isNewGame = true;
-            decreaseCounter = 0;
-            difficultyLevel = 1;
-            difficultyLevelLive.setValue(1);
             repository.resetGameState();
             stopTimers();
             startTimers();
+            actor.reset(currentState.getRngSeed());
         }
     }
 
     public void saveBestTime() {
-        GameState currentState = gameState.getValue();
-        GameSettings settings = gameSettings.getValue();
-        if (currentState != null && settings != null) {
-            // Добавим логи для отладки
-            android.util.Log.d("GameViewModel",
-                    "saveBestTime: elapsedTime=" + currentState.getElapsedTime() +
-                            ", gameSpeed=" + settings.getGameSpeed());
+        GameActor current = actor;
+        if (current != null) {
+            saveBestTime(current.snapshot().getElapsedTime());
+        }
+    }
 
+    // Время забега - по тикам движка, как в RunRecord и percentBeaten, а не по часам GameState
+    private void saveBestTime(long elapsedTime) {
+        GameSettings settings = gameSettings.getValue();
+        if (settings != null) {
             // Сохраняем лучшее время для текущего режима
-            repository.saveBestTime(
-                    currentState.getElapsedTime(),
-                    settings.getGameSpeed()
-            );
+            repository.saveBestTime(elapsedTime, settings.getGameSpeed());
         } else {
             android.util.Log.e("GameViewModel", "Не удалось сохранить лучшее время: данные null");
         }
@@ -269,37 +357,42 @@ public class GameViewModel extends AndroidViewModel {
     public void saveGame() {
         GameState currentState = gameState.getValue();
         if (currentState != null) {
+            // Нажатия, ещё не дождавшиеся кадра, тоже должны попасть в сохранение
+            flushPendingActions();
+
+            // Сохраняем последний снимок: характеристики и продолжение потока случайных чисел
+            GameSnapshot snapshot = actor.snapshot();
+            currentState.setPetStats(PetStats.fromPacked(snapshot.getStats()));
+            currentState.setRngSeed(snapshot.getRngSeed());
             repository.saveGameState(currentState);
         }
     }
 
-    private void stopTimers() {
-        if (gameTimer != null) {
-            gameTimer.cancel();
-            gameTimer = null;
-        }
-        if (statTimer != null) {
-            statTimer.cancel();
-            statTimer = null;
-        }
+    // То же, но без ожидания отложенной записи: для ухода в фон и закрытия экрана
+    public void saveGameNow() {
+        saveGame();
+        repository.flush();
+    }
+
+    private synchronized void stopTimers() {
+        timersRunning = false;
+        wakeTimeout.cancel();
     }
 
     @Override
     protected void onCleared() {
         super.onCleared();
-        saveGame();
+        cleared = true;
+        saveGameNow();
         stopTimers();
     }
 
     // LiveData геттеры
-    public LiveData<PetStats> getPetStats() { return petStats; }
     public LiveData<GameSettings> getGameSettings() { return gameSettings; }
     public LiveData<GameState> getGameState() { return gameState; }
-    public LiveData<String> getTimerText() { return timerText; }
+    public LiveData<GameUiState> getUiState() { return uiState; }
     public LiveData<Boolean> getIsGameOver() { return isGameOver; }
-    public LiveData<Integer> getDifficultyLevel() { return difficultyLevelLive; }
-
-    interface StatsUpdater {
-        PetStats update(PetStats stats);
-    }
+    public LiveData<Boolean> getIsLoading() { return isLoading; }
+    public LiveData<Integer> getPercentBeaten() { return percentBeaten; }
+    public StatTimeSeries getStatHistory() { return statHistory; }
 }
\ No newline at end of file
@@ -1,39 +1,36 @@
 package com.example.tamagotchiproject.viewmodel;
 
 import android.app.Application;
+import androidx.arch.core.util.Function;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 import com.example.tamagotchiproject.model.*;
 import com.example.tamagotchiproject.repository.GameRepository;
 
-import java.util.Map;
-
 public class MainViewModel extends AndroidViewModel {
     private GameRepository repository;
-    private MutableLiveData<GameSettings> gameSettings = new MutableLiveData<>();
-    private MutableLiveData<String> bestTimeMedium = new MutableLiveData<>();
-    private MutableLiveData<String> bestTimeFast = new MutableLiveData<>();
+    // Настройки и рекорды приходят из репозитория сами, когда их меняет любой экран
+    private LiveData<GameSettings> gameSettings;
+    private LiveData<String> bestTimeMedium;
+    private LiveData<String> bestTimeFast;
 
     public MainViewModel(Application application) {
         super(application);
-        repository = new GameRepository(application);
-    }
-
-    public void loadData() {
-        GameState gameState = repository.loadGameState(true);
-        if (gameState != null) {
-            this.gameSettings.setValue(gameState.getGameSettings());
-        }
-
-        updateBestTimes();
-    }
-    public void updateBestTimes() {
-        long mediumTime = repository.getBestTime(0);
-        long fastTime = repository.getBestTime(1);
-
-        bestTimeMedium.setValue("Рекорд (средний): " + formatTime(mediumTime));
-        bestTimeFast.setValue("Рекорд (быстрый): " + formatTime(fastTime));
+        repository = GameRepository.getInstance(application);
+        gameSettings = repository.getSettingsLive();
+        bestTimeMedium = Transformations.map(repository.getBestTimeLive(0), new Function<Long, String>() {
+            @Override
+            public String apply(Long time) {
+                return "Рекорд (средний): " + formatTime(time);
+            }
+        });
+        bestTimeFast = Transformations.map(repository.getBestTimeLive(1), new Function<Long, String>() {
+            @Override
+            public String apply(Long time) {
+                return "Рекорд (быстрый): " + formatTime(time);
+            }
+        });
     }
 
     private String formatTime(long milliseconds) {
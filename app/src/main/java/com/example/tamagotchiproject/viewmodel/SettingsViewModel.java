@@ -10,17 +10,24 @@ import com.example.tamagotchiproject.repository.GameRepository;
 public class SettingsViewModel extends AndroidViewModel {
     private GameRepository repository;
     private MutableLiveData<GameSettings> gameSettings = new MutableLiveData<>();
+    private MutableLiveData<Boolean> isLoading = new MutableLiveData<>(true);
 
     public SettingsViewModel(Application application) {
         super(application);
-        repository = new GameRepository(application);
+        repository = GameRepository.getInstance(application);
         loadSettings();
     }
 
     private void loadSettings() {
-        // Загружаем настройки (false означает не новая игра для SettingsActivity)
-        GameState gameState = repository.loadGameState(false);
-        gameSettings.setValue(gameState.getGameSettings());
+        // Копия настроек репозитория: правки до сохранения никого больше не затрагивают.
+        // При первом обращении хранилище читается с диска, поэтому в фоне
+        repository.loadSettingsAsync(new GameRepository.LoadCallback<GameSettings>() {
+            @Override
+            public void onLoaded(GameSettings settings) {
+                gameSettings.postValue(settings);
+                isLoading.postValue(false);
+            }
+        });
     }
 
     public void updatePetName(String name) {
@@ -57,4 +64,8 @@ public class SettingsViewModel extends AndroidViewModel {
     public LiveData<GameSettings> getGameSettings() {
         return gameSettings;
     }
+
+    public LiveData<Boolean> getIsLoading() {
+        return isLoading;
+    }
 }
\ No newline at end of file
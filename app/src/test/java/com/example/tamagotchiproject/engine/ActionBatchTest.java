@@ -0,0 +1,66 @@
+package com.example.tamagotchiproject.engine;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class ActionBatchTest {
+
+    @Test
+    public void foldedBatch_equalsActionsOneByOne() {
+        SplittableRandom random = new SplittableRandom(11);
+        ActionBatch batch = new ActionBatch();
+        for (int round = 0; round < 100_000; round++) {
+            int stats = PackedStats.pack(random.nextInt(101), random.nextInt(101),
+                    random.nextInt(101), random.nextInt(101));
+            int expected = stats;
+            batch.clear();
+            int taps = random.nextInt(12);
+            for (int i = 0; i < taps; i++) {
+                int action = GameAction.FEED + random.nextInt(4);
+                expected = GameAction.apply(expected, action);
+                batch.add(action);
+            }
+            assertEquals(expected, batch.applyTo(stats));
+        }
+    }
+
+    @Test
+    public void joinedBatches_equalOneLongBatch() {
+        ActionBatch first = new ActionBatch();
+        ActionBatch second = new ActionBatch();
+        ActionBatch whole = new ActionBatch();
+        int[] taps = {GameAction.REST, GameAction.PLAY, GameAction.PLAY, GameAction.FEED,
+                GameAction.REST, GameAction.WASH, GameAction.PLAY};
+        for (int i = 0; i < taps.length; i++) {
+            (i < 3 ? first : second).add(taps[i]);
+            whole.add(taps[i]);
+        }
+        first.addAll(second);
+
+        int stats = PackedStats.pack(3, 50, 97, 8);
+        assertEquals(whole.applyTo(stats), first.applyTo(stats));
+        assertEquals(taps.length, first.size());
+    }
+
+    @Test
+    public void actor_appliesWholeFrameAsOneCommand() {
+        SimulationEngine engine = new SimulationEngine(1, 1L, () -> 0L);
+        engine.load(PackedStats.pack(10, 10, 10, 10), 0);
+        GameActor actor = new GameActor(engine);
+        long before = actor.snapshot().getVersion();
+
+        ActionBatch frame = new ActionBatch();
+        for (int i = 0; i < 50; i++) {
+            frame.add(GameAction.PLAY);
+        }
+        actor.apply(frame);
+        frame.clear();
+
+        assertEquals(before + 1, actor.snapshot().getVersion());
+        assertEquals(100, PackedStats.happiness(actor.snapshot().getStats()));
+        assertEquals(0, PackedStats.energy(actor.snapshot().getStats()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.tamagotchiproject.engine;
+
+import java.util.concurrent.ForkJoinPool;
+
+// Прогон BalanceAnalyzer с машины разработчика; в приложение не попадает.
+// Аргументы: [число игр на режим] [порог заботы]
+public class BalanceAnalyzerCli {
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int threshold = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        PlayerPolicy[] policies = {
+                PlayerPolicy.idle(),
+                PlayerPolicy.feedWhenHungerBelow(threshold),
+                PlayerPolicy.careWhenBelow(threshold)
+        };
+        String[] names = {"без ухода", "кормить при сытости < " + threshold, "чинить худший показатель < " + threshold};
+
+        for (int gameSpeed = 0; gameSpeed <= 1; gameSpeed++) {
+            for (int i = 0; i < policies.length; i++) {
+                long started = System.nanoTime();
+                BalanceAnalyzer analyzer = new BalanceAnalyzer(gameSpeed, policies[i], 5, 60 * 60, 30, 42L);
+                BalanceReport report = analyzer.run(games, pool);
+                System.out.println("Политика: " + names[i]);
+                System.out.print(report);
+                System.out.printf("  (%.1f с)%n%n", (System.nanoTime() - started) / 1e9);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.tamagotchiproject.engine;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BalanceAnalyzerTest {
+
+    @Test
+    public void resultDoesNotDependOnParallelism() {
+        BalanceAnalyzer analyzer = new BalanceAnalyzer(1, PlayerPolicy.careWhenBelow(40), 3, 600, 10, 7L);
+
+        ForkJoinPool one = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        BalanceReport single;
+        BalanceReport parallel;
+        try {
+            single = analyzer.run(10_000, one);
+            parallel = analyzer.run(10_000, four);
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+
+        assertArrayEquals(single.getHistogram(), parallel.getHistogram());
+        assertEquals(single.getGames(), parallel.getGames());
+    }
+
+    @Test
+    public void idlePetAlwaysDiesBeforeCap() {
+        BalanceAnalyzer analyzer = new BalanceAnalyzer(1, PlayerPolicy.idle(), 5, 3600, 30, 1L);
+
+        BalanceReport report = analyzer.run(1_000, ForkJoinPool.commonPool());
+
+        assertEquals(1_000, report.getGames());
+        assertEquals(0, report.getSurvivedToCap());
+        assertTrue(report.percentileSeconds(0.5) < 3600);
+    }
+
+    @Test
+    public void caringPlayerOutlivesIdlePlayer() {
+        BalanceReport idle = new BalanceAnalyzer(0, PlayerPolicy.idle(), 5, 3600, 30, 3L)
+                .run(1_000, ForkJoinPool.commonPool());
+        BalanceReport caring = new BalanceAnalyzer(0, PlayerPolicy.careWhenBelow(40), 5, 3600, 30, 3L)
+                .run(1_000, ForkJoinPool.commonPool());
+
+        assertTrue(caring.meanSeconds() > idle.meanSeconds());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.tamagotchiproject.engine;
+
+import com.example.tamagotchiproject.model.PetStats;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DecayTableTest {
+
+    @Test
+    public void rows_holdRoundedDecrementsAndIntervals() {
+        int row = DecayTable.row(5, 0);
+        int decrease = DecayTable.decrease(row);
+        assertEquals(6, PackedStats.hunger(decrease));
+        assertEquals(5, PackedStats.happiness(decrease));
+        assertEquals(4, PackedStats.cleanliness(decrease));
+        assertEquals(5, PackedStats.energy(decrease));
+        assertEquals(30, DecayTable.interval(row));
+        assertEquals(1, DecayTable.interval(DecayTable.row(5, 1)));
+
+        // Даже на первом уровне каждый показатель уменьшается хотя бы на единицу
+        int easiest = DecayTable.decrease(DecayTable.row(1, 1));
+        assertEquals(1, PackedStats.cleanliness(easiest));
+        assertEquals(1, PackedStats.energy(easiest));
+    }
+
+    @Test
+    public void extras_hitEachChanceFromOneWord() {
+        int row = DecayTable.row(1, 0);
+        PetRandom random = new Xoroshiro128PlusPlus(9);
+        int draws = 1_000_000;
+        int[] hits = new int[4];
+        for (int i = 0; i < draws; i++) {
+            int extras = DecayTable.extras(row, random.nextLong());
+            hits[0] += PackedStats.hunger(extras);
+            hits[1] += PackedStats.happiness(extras);
+            hits[2] += PackedStats.cleanliness(extras);
+            hits[3] += PackedStats.energy(extras);
+        }
+        assertEquals(0.3, hits[0] / (double) draws, 0.003);
+        assertEquals(0.3, hits[1] / (double) draws, 0.003);
+        assertEquals(0.5, hits[2] / (double) draws, 0.003);
+        assertEquals(0.4, hits[3] / (double) draws, 0.003);
+    }
+
+    @Test
+    public void petStatsAndEngine_decayIdentically() {
+        for (int level = 1; level <= 5; level++) {
+            SimulationEngine engine = new SimulationEngine(1, 77L, () -> 0L);
+            engine.load(PackedStats.FULL, (level == 1) ? 0 : levelStartMillis(level) - SimulationEngine.TICK_MILLIS);
+            PetStats stats = new PetStats();
+            PetRandom random = new Xoroshiro128PlusPlus(77L);
+
+            for (int step = 0; step < 10; step++) {
+                engine.tick();
+                stats = stats.decreaseStats(engine.getDifficultyLevel(), 1, random);
+                assertEquals(stats.getPacked(), engine.getStats());
+            }
+        }
+    }
+
+    private static long levelStartMillis(int level) {
+        long[] minutes = {0, 1, 2, 5, 10};
+        return minutes[level - 1] * 60000;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.tamagotchiproject.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DifficultyScheduleTest {
+
+    @Test
+    public void defaultCurve_matchesOriginalLadder() {
+        DifficultySchedule schedule = DifficultySchedule.DEFAULT;
+        assertEquals(1, schedule.levelAt(0));
+        assertEquals(1, schedule.levelAt(59_999));
+        assertEquals(2, schedule.levelAt(60_000));
+        assertEquals(3, schedule.levelAt(4 * 60_000));
+        assertEquals(4, schedule.levelAt(9 * 60_000 + 59_999));
+        assertEquals(5, schedule.levelAt(10 * 60_000));
+        assertEquals(5, schedule.levelAt(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void nextTransition_pointsAtNextBoundary() {
+        DifficultySchedule schedule = DifficultySchedule.DEFAULT;
+        assertEquals(60_000, schedule.nextTransitionAt(0));
+        assertEquals(5 * 60_000, schedule.nextTransitionAt(2 * 60_000));
+        assertEquals(Long.MAX_VALUE, schedule.nextTransitionAt(10 * 60_000));
+    }
+
+    @Test
+    public void customCurve_drivesEngine() {
+        DifficultySchedule gentle = DifficultySchedule.ofMinutes(3);
+        SimulationEngine engine = new SimulationEngine(1, 1L, () -> 0L);
+        engine.setDifficultySchedule(gentle);
+        engine.load(PackedStats.FULL, 2 * 60_000);
+        assertEquals(1, engine.getDifficultyLevel());
+
+        engine.load(PackedStats.FULL, 3 * 60_000);
+        assertEquals(2, engine.getDifficultyLevel());
+        assertEquals(2, gentle.getMaxLevel());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsortedThresholds_areRejected() {
+        DifficultySchedule.ofMinutes(5, 2);
+    }
+}
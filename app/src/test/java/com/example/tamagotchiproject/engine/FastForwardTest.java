@@ -0,0 +1,120 @@
+package com.example.tamagotchiproject.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+// Перемотка должна совпадать с пошаговой симуляцией по распределению
+public class FastForwardTest {
+    private static final int RUNS = 20_000;
+
+    @Test
+    public void survivingRun_matchesPerTickDistribution() {
+        // 8 минут в среднем режиме: 16 уменьшений на четырёх уровнях сложности
+        compareDistributions(0, 8 * 60);
+    }
+
+    @Test
+    public void fatalRun_matchesPerTickDeathTime() {
+        // В быстром режиме за 200 тиков питомец почти всегда погибает
+        compareDistributions(1, 200);
+    }
+
+    @Test
+    public void weekAway_endsGameWithoutWalkingEveryTick() {
+        SimulationEngine engine = new SimulationEngine(0, 3L);
+        long weekTicks = 7L * 24 * 60 * 60;
+
+        long done = engine.fastForward(weekTicks);
+
+        assertTrue(engine.isGameOver());
+        assertTrue(done < weekTicks);
+        assertEquals(done * SimulationEngine.TICK_MILLIS, engine.getElapsedTime());
+    }
+
+    @Test
+    public void idleTicks_onlyMoveTime() {
+        SimulationEngine engine = new SimulationEngine(0, 3L);
+        assertEquals(29, engine.fastForward(29));
+        assertEquals(PackedStats.FULL, engine.getStats());
+        assertEquals(29_000, engine.getElapsedTime());
+    }
+
+    @Test
+    public void deadPet_endsOnFirstTickLikeTick() {
+        SimulationEngine stepping = new SimulationEngine(0, 3L);
+        SimulationEngine jumping = new SimulationEngine(0, 3L);
+        stepping.load(PackedStats.pack(0, 100, 100, 100), 0);
+        jumping.load(PackedStats.pack(0, 100, 100, 100), 0);
+
+        assertEquals(1, stepping.tick(10));
+        assertEquals(1, jumping.fastForward(10));
+        assertTrue(jumping.isGameOver());
+        assertEquals(stepping.getElapsedTime(), jumping.getElapsedTime());
+        assertEquals(stepping.getStats(), jumping.getStats());
+        assertEquals(0, jumping.fastForward(100));
+    }
+
+    private static void compareDistributions(int gameSpeed, int ticks) {
+        int[][] perTick = new int[5][];
+        int[][] forwarded = new int[5][];
+        for (int i = 0; i < 5; i++) {
+            perTick[i] = new int[ticks + 2];
+            forwarded[i] = new int[ticks + 2];
+        }
+
+        SimulationEngine stepping = new SimulationEngine(gameSpeed, 1L);
+        SimulationEngine jumping = new SimulationEngine(gameSpeed, 2L);
+        for (int run = 0; run < RUNS; run++) {
+            stepping.reset();
+            jumping.reset();
+            int steppedTicks = stepping.tick(ticks);
+            long jumpedTicks = jumping.fastForward(ticks);
+
+            record(perTick, stepping, steppedTicks);
+            record(forwarded, jumping, (int) jumpedTicks);
+        }
+
+        String[] names = {"hunger", "happiness", "cleanliness", "energy", "ticks"};
+        for (int i = 0; i < names.length; i++) {
+            assertSameDistribution(names[i], perTick[i], forwarded[i]);
+        }
+    }
+
+    private static void record(int[][] histograms, SimulationEngine engine, int ticks) {
+        histograms[0][engine.getHunger()]++;
+        histograms[1][engine.getHappiness()]++;
+        histograms[2][engine.getCleanliness()]++;
+        histograms[3][engine.getEnergy()]++;
+        histograms[4][ticks]++;
+    }
+
+    // Двухвыборочный критерий хи-квадрат, редкие значения объединяются в один столбец
+    private static void assertSameDistribution(String name, int[] a, int[] b) {
+        double chiSquare = 0;
+        int bins = 0;
+        int restA = 0;
+        int restB = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] + b[i] < 20) {
+                restA += a[i];
+                restB += b[i];
+                continue;
+            }
+            chiSquare += square(a[i] - b[i]) / (a[i] + b[i]);
+            bins++;
+        }
+        if (restA + restB > 0) {
+            chiSquare += square(restA - restB) / (restA + restB);
+            bins++;
+        }
+        int freedom = Math.max(1, bins - 1);
+        // Грубая верхняя граница квантиля 0.999: k + 3.3 * sqrt(2k) + 10
+        double limit = freedom + 3.3 * Math.sqrt(2.0 * freedom) + 10;
+        assertTrue(name + ": chi2=" + chiSquare + " df=" + freedom, chiSquare < limit);
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+}
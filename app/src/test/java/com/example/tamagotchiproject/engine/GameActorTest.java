@@ -0,0 +1,204 @@
+package com.example.tamagotchiproject.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class GameActorTest {
+
+    @Test
+    public void actionsDuringTicks_areNeverLost() throws Exception {
+        final long[] now = {0};
+        final SimulationEngine engine = new SimulationEngine(1, 5L, new GameClock() {
+            @Override
+            public long now() {
+                synchronized (now) {
+                    return now[0];
+                }
+            }
+        });
+        final GameActor actor = new GameActor(engine);
+        // Порядок, в котором актёр на самом деле применил действия и уменьшения
+        final List<long[]> applied = Collections.synchronizedList(new ArrayList<long[]>());
+        actor.setJournal(new GameActor.Journal() {
+            @Override
+            public void record(int type, int detail, int stats, long elapsedTime) {
+                applied.add(new long[]{type, detail, stats, elapsedTime});
+            }
+        });
+
+        final int writers = 4;
+        final int actionsPerWriter = 20_000;
+        final int ticks = 5_000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong lastSeenVersion = new AtomicLong();
+        final AtomicBoolean versionWentBack = new AtomicBoolean();
+
+        Thread[] threads = new Thread[writers + 2];
+        for (int w = 0; w < writers; w++) {
+            final int action = GameAction.FEED + w % 4;
+            threads[w] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    await(start);
+                    for (int i = 0; i < actionsPerWriter; i++) {
+                        actor.perform(action);
+                    }
+                }
+            });
+        }
+        // Тики: часы сдвигаются, и писатель догоняет их, как пробуждение из TimingWheel
+        threads[writers] = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                await(start);
+                for (int i = 0; i < ticks; i++) {
+                    synchronized (now) {
+                        now[0] += SimulationEngine.TICK_MILLIS;
+                    }
+                    actor.tick();
+                }
+            }
+        });
+        // Читатель снимков без блокировок: версия не должна убывать
+        threads[writers + 1] = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                await(start);
+                while (running.get()) {
+                    long version = actor.snapshot().getVersion();
+                    if (version < lastSeenVersion.get()) {
+                        versionWentBack.set(true);
+                    }
+                    lastSeenVersion.set(version);
+                }
+            }
+        });
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (int i = 0; i < writers + 1; i++) {
+            threads[i].join();
+        }
+        running.set(false);
+        threads[writers + 1].join();
+
+        GameSnapshot snapshot = actor.snapshot();
+        assertEquals((long) writers * actionsPerWriter + ticks, snapshot.getVersion());
+        assertFalse(versionWentBack.get());
+        // Все тики учтены, кроме тех, что не понадобились после конца игры
+        assertTrue(snapshot.isGameOver() || snapshot.getElapsedTime() == ticks * SimulationEngine.TICK_MILLIS);
+
+        // Те же команды в том же порядке на одном потоке дают те же характеристики бит в бит
+        SimulationEngine sequential = new SimulationEngine(1, 5L, () -> 0L);
+        for (long[] record : applied) {
+            if (record[0] == GameActor.Journal.ACTION) {
+                sequential.apply((int) record[1]);
+            } else {
+                sequential.tick((record[3] - sequential.getElapsedTime()) / SimulationEngine.TICK_MILLIS);
+                assertEquals((int) record[2], sequential.getStats());
+            }
+        }
+        sequential.tick((snapshot.getElapsedTime() - sequential.getElapsedTime()) / SimulationEngine.TICK_MILLIS);
+        assertEquals(snapshot.getStats(), sequential.getStats());
+        assertEquals(snapshot.isGameOver(), sequential.isGameOver());
+    }
+
+    @Test
+    public void listener_seesEverySnapshotInOrder() {
+        SimulationEngine engine = new SimulationEngine(1, 2L, () -> 0L);
+        GameActor actor = new GameActor(engine);
+        final long[] lastVersion = {0};
+        actor.setListener(new GameActor.Listener() {
+            @Override
+            public void onSnapshot(GameSnapshot snapshot) {
+                assertEquals(lastVersion[0] + 1, snapshot.getVersion());
+                lastVersion[0] = snapshot.getVersion();
+            }
+        });
+
+        actor.feed();
+        actor.pause();
+        actor.tick();
+        actor.resume();
+
+        assertEquals(4, lastVersion[0]);
+        assertFalse(actor.snapshot().isPaused());
+    }
+
+    @Test
+    public void pausedActor_ignoresTicks() {
+        final long[] now = {0};
+        SimulationEngine engine = new SimulationEngine(1, 3L, () -> now[0]);
+        GameActor actor = new GameActor(engine);
+
+        actor.pause();
+        now[0] = 10 * SimulationEngine.TICK_MILLIS;
+        actor.tick();
+        actor.resume();
+        actor.tick();
+
+        assertEquals(0, actor.snapshot().getElapsedTime());
+        assertEquals(PackedStats.FULL, actor.snapshot().getStats());
+    }
+
+    @Test
+    public void savedSeed_changesOnlyWithRandomStream() {
+        final long[] now = {0};
+        SimulationEngine engine = new SimulationEngine(1, 4L, () -> now[0]);
+        GameActor actor = new GameActor(engine);
+        long first = actor.snapshot().getRngSeed();
+        actor.feed();
+        assertEquals(first, actor.snapshot().getRngSeed());
+
+        now[0] = 60 * SimulationEngine.TICK_MILLIS;
+        actor.tick();
+        assertNotEquals(first, actor.snapshot().getRngSeed());
+    }
+
+    @Test
+    public void publishing_doesNotDisturbRandomStream() {
+        final long[] now = {0};
+        SimulationEngine direct = new SimulationEngine(1, 9L, () -> now[0]);
+        SimulationEngine published = new SimulationEngine(1, 9L, () -> now[0]);
+        GameActor actor = new GameActor(published);
+        for (int i = 1; i <= 300; i++) {
+            now[0] = i * SimulationEngine.TICK_MILLIS;
+            direct.advance();
+            // Сколько раз снимок опубликован, не должно влиять на игру
+            actor.tick();
+            actor.snapshot();
+            actor.tick();
+        }
+        assertEquals(direct.getStats(), actor.snapshot().getStats());
+        assertEquals(direct.getRandom().nextLong(), published.getRandom().nextLong());
+    }
+
+    @Test
+    public void injectedRandom_isKept() {
+        PetRandom random = new Xoroshiro128PlusPlus(3);
+        SimulationEngine engine = new SimulationEngine(1, random, () -> 0L);
+        GameActor actor = new GameActor(engine);
+        actor.tick();
+        actor.feed();
+        assertSame(random, engine.getRandom());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.tamagotchiproject.engine;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class PackedStatsTest {
+
+    @Test
+    public void saturatingOps_matchScalarClamping() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 200_000; i++) {
+            int[] a = randomStats(random);
+            int[] d = randomStats(random);
+            int packed = PackedStats.pack(a[0], a[1], a[2], a[3]);
+            int delta = PackedStats.pack(d[0], d[1], d[2], d[3]);
+
+            int sum = PackedStats.add(packed, delta);
+            int diff = PackedStats.subtract(packed, delta);
+
+            assertEquals(Math.min(100, a[0] + d[0]), PackedStats.hunger(sum));
+            assertEquals(Math.min(100, a[3] + d[3]), PackedStats.energy(sum));
+            assertEquals(Math.max(0, a[1] - d[1]), PackedStats.happiness(diff));
+            assertEquals(Math.max(0, a[2] - d[2]), PackedStats.cleanliness(diff));
+        }
+    }
+
+    @Test
+    public void actions_matchOriginalRules() {
+        int stats = PackedStats.pack(90, 95, 80, 4);
+
+        int played = PackedStats.play(stats);
+        assertEquals(100, PackedStats.happiness(played));
+        assertEquals(0, PackedStats.energy(played));
+
+        int rested = PackedStats.rest(stats);
+        assertEquals(34, PackedStats.energy(rested));
+        assertEquals(85, PackedStats.hunger(rested));
+    }
+
+    @Test
+    public void lowAndCritical_checkEveryLane() {
+        assertFalse(PackedStats.isAnyStatLow(PackedStats.FULL));
+        assertTrue(PackedStats.isAnyStatLow(PackedStats.pack(100, 100, 100, 39)));
+        assertFalse(PackedStats.isAnyStatLow(PackedStats.pack(40, 40, 40, 40)));
+        assertTrue(PackedStats.isAnyStatCritical(PackedStats.pack(100, 0, 100, 100)));
+        assertFalse(PackedStats.isAnyStatCritical(PackedStats.pack(1, 1, 1, 1)));
+    }
+
+    private static int[] randomStats(SplittableRandom random) {
+        return new int[] {
+                random.nextInt(101), random.nextInt(101), random.nextInt(101), random.nextInt(101)
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.tamagotchiproject.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PetRandomTest {
+
+    @Test
+    public void sameSeed_replaysBitExact() {
+        PetRandom first = new Xoroshiro128PlusPlus(123);
+        PetRandom second = new Xoroshiro128PlusPlus(123);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(first.nextLong(), second.nextLong());
+        }
+    }
+
+    @Test
+    public void split_givesIndependentStream() {
+        PetRandom parent = new Xoroshiro128PlusPlus(5);
+        PetRandom child = parent.split();
+        assertNotEquals(parent.nextLong(), child.nextLong());
+    }
+
+    @Test
+    public void deriveSeed_doesNotAdvanceStream() {
+        PetRandom first = new Xoroshiro128PlusPlus(77);
+        PetRandom second = new Xoroshiro128PlusPlus(77);
+        long seed = first.deriveSeed();
+        assertEquals(seed, first.deriveSeed());
+        assertEquals(second.nextLong(), first.nextLong());
+        assertNotEquals(seed, first.deriveSeed());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.tamagotchiproject.engine;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class PetStatsBankTest {
+
+    @Test
+    public void decay_matchesEngineDecrementsPlusAtMostOneExtra() {
+        PetStatsBank bank = new PetStatsBank(1000, 5L);
+        bank.decayAll(3, 1);
+
+        int hungerStep = PackedStats.hunger(DecayTable.decrease(DecayTable.row(3, 1)));
+        for (int pet = 0; pet < bank.size(); pet++) {
+            int decrease = 100 - bank.getHunger(pet);
+            assertTrue(decrease == hungerStep || decrease == hungerStep + 1);
+        }
+    }
+
+    @Test
+    public void mediumSpeed_decaysOnlyEveryThirtiethTick() {
+        PetStatsBank bank = new PetStatsBank(10, 1L);
+        for (int i = 0; i < 29; i++) {
+            bank.decayAll(1, 0);
+        }
+        assertEquals(100, bank.getHunger(0));
+        bank.decayAll(1, 0);
+        assertTrue(bank.getHunger(0) < 100);
+    }
+
+    @Test
+    public void bitmap_marksPetsThatBecameLow() {
+        PetStatsBank bank = new PetStatsBank(130, 9L);
+        bank.set(129, 41, 100, 100, 100);
+
+        long[] changed = bank.decayAll(2, 1);
+
+        assertTrue(PetStatsBank.isSet(changed, 129));
+        assertFalse(PetStatsBank.isSet(changed, 0));
+        assertTrue(bank.isLow(129));
+    }
+
+    @Test
+    public void parallelDecay_equalsSequential() {
+        PetStatsBank sequential = new PetStatsBank(300_000, 11L);
+        PetStatsBank parallel = new PetStatsBank(300_000, 11L);
+        ForkJoinPool pool = new ForkJoinPool();
+
+        try {
+            for (int tick = 0; tick < 40; tick++) {
+                long[] a = sequential.decayAll(5, 1).clone();
+                long[] b = parallel.decayAllParallel(5, 1, pool);
+                assertArrayEquals(a, b);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        for (int pet = 0; pet < sequential.size(); pet += 997) {
+            assertEquals(sequential.getEnergy(pet), parallel.getEnergy(pet));
+        }
+    }
+}
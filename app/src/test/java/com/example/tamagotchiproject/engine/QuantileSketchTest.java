@@ -0,0 +1,88 @@
+package com.example.tamagotchiproject.engine;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class QuantileSketchTest {
+    @Test
+    public void fractionBelow_isCloseToExactRank() {
+        QuantileSketch sketch = new QuantileSketch();
+        Random random = new Random(1);
+        int n = 100_000;
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = (long) (Math.abs(random.nextGaussian()) * 600_000);
+            sketch.update(values[i]);
+        }
+
+        for (long probe : new long[]{60_000, 300_000, 600_000, 1_200_000}) {
+            int below = 0;
+            for (long value : values) {
+                if (value < probe) below++;
+            }
+            assertEquals((double) below / n, sketch.fractionBelow(probe), 0.02);
+        }
+        assertEquals(n, sketch.getCount());
+        assertTrue("retained " + sketch.getRetained(), sketch.getRetained() < 1000);
+        assertTrue(sketch.serializedSize() < 8 * 1024);
+    }
+
+    @Test
+    public void quantile_matchesDistribution() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 50_000; i++) {
+            sketch.update(i);
+        }
+        assertEquals(25_000, sketch.quantile(0.5), 50_000 * 0.02);
+        assertEquals(45_000, sketch.quantile(0.9), 50_000 * 0.02);
+    }
+
+    @Test
+    public void smallSketch_isExact() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.update(10);
+        sketch.update(20);
+        sketch.update(30);
+        sketch.update(40);
+        assertEquals(0.0, sketch.fractionBelow(10), 0);
+        assertEquals(0.5, sketch.fractionBelow(25), 0);
+        assertEquals(1.0, sketch.fractionBelow(41), 0);
+        assertEquals(0.0, new QuantileSketch().fractionBelow(5), 0);
+    }
+
+    @Test
+    public void merge_equalsOneStream() {
+        QuantileSketch left = new QuantileSketch(QuantileSketch.DEFAULT_K, 1);
+        QuantileSketch right = new QuantileSketch(QuantileSketch.DEFAULT_K, 2);
+        for (int i = 0; i < 40_000; i++) {
+            (i % 2 == 0 ? left : right).update(i);
+        }
+        left.merge(right);
+        assertEquals(40_000, left.getCount());
+        assertEquals(0.25, left.fractionBelow(10_000), 0.02);
+        assertEquals(0.75, left.fractionBelow(30_000), 0.02);
+    }
+
+    @Test
+    public void serialization_roundTrips() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 10_000; i++) {
+            sketch.update(i * 7L);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(sketch.serializedSize());
+        sketch.writeTo(buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+
+        QuantileSketch restored = QuantileSketch.readFrom(buffer);
+        assertEquals(sketch.getCount(), restored.getCount());
+        assertEquals(sketch.getRetained(), restored.getRetained());
+        assertEquals(sketch.fractionBelow(35_000), restored.fractionBelow(35_000), 0);
+        restored.update(1);
+        assertEquals(10_001, restored.getCount());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.tamagotchiproject.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SimulationEngineTest {
+
+    @Test
+    public void sameSeed_givesSameRun() {
+        SimulationEngine first = new SimulationEngine(1, 42L);
+        SimulationEngine second = new SimulationEngine(1, 42L);
+
+        int firstTicks = first.tick(10_000);
+        int secondTicks = second.tick(10_000);
+
+        assertEquals(firstTicks, secondTicks);
+        assertEquals(first.getElapsedTime(), second.getElapsedTime());
+        assertEquals(first.getHunger(), second.getHunger());
+        assertEquals(first.getEnergy(), second.getEnergy());
+        assertTrue(first.isGameOver());
+    }
+
+    @Test
+    public void mediumSpeed_decreasesEveryThirtiethTick() {
+        SimulationEngine engine = new SimulationEngine(0, 1L);
+
+        engine.tick(29);
+        assertEquals(100, engine.getHunger());
+
+        engine.tick(1);
+        assertTrue(engine.getHunger() < 100);
+    }
+
+    @Test
+    public void advance_followsInjectedClock() {
+        long[] now = {0};
+        SimulationEngine engine = new SimulationEngine(1, 7L, () -> now[0]);
+
+        now[0] = 2500;
+        assertEquals(2, engine.advance());
+        now[0] = 3000;
+        assertEquals(1, engine.advance());
+        assertEquals(3000, engine.getElapsedTime());
+    }
+
+    @Test
+    public void difficulty_followsElapsedTime() {
+        SimulationEngine engine = new SimulationEngine(0, 3L);
+        engine.load(100, 100, 100, 100, 4 * 60_000);
+        assertEquals(3, engine.getDifficultyLevel());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.tamagotchiproject.engine;
+
+// Пропускная способность SimulationEngine в тиках в секунду; в приложение не попадает.
+// Сравниваются tick(count), цикл по tick() и прежний путь из GameViewModel (decreaseStats и
+// updateDifficultyLevel с Math.random и float-коэффициентами), перенесённый сюда без таймеров.
+// Прежний путь брал время с часов, здесь оно считается по тикам, иначе его не разогнать.
+// Когда питомец погибает, игра начинается заново - одинаково для всех путей.
+// Аргументы: [скорость игры] [тиков на замер] [число замеров]
+public class SimulationEngineTiming {
+    private static final int CHUNK = 1000;
+
+    public static void main(String[] args) {
+        int gameSpeed = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        long ticks = args.length > 1 ? Long.parseLong(args[1]) : 50_000_000L;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        long sink = 0;
+        for (int round = 0; round < rounds; round++) {
+            long started = System.nanoTime();
+            sink += runBatched(gameSpeed, ticks);
+            double batched = ticks / ((System.nanoTime() - started) / 1e9);
+
+            started = System.nanoTime();
+            sink += runSingle(gameSpeed, ticks);
+            double single = ticks / ((System.nanoTime() - started) / 1e9);
+
+            started = System.nanoTime();
+            sink += runOld(gameSpeed, ticks);
+            double old = ticks / ((System.nanoTime() - started) / 1e9);
+
+            System.out.printf("замер %d: tick(count) %.1f млн/с, tick() %.1f млн/с, прежний путь %.1f млн/с%n",
+                    round + 1, batched / 1e6, single / 1e6, old / 1e6);
+        }
+        // Чтобы JIT не выбросил результат
+        System.out.println("контрольная сумма: " + sink);
+    }
+
+    private static long runBatched(int gameSpeed, long ticks) {
+        SimulationEngine engine = new SimulationEngine(gameSpeed, 42L, GameClock.SYSTEM);
+        long sum = 0;
+        for (long done = 0; done < ticks; ) {
+            int step = engine.tick(Math.min(CHUNK, ticks - done));
+            done += step;
+            if (engine.isGameOver()) {
+                sum += engine.getElapsedTime();
+                engine.reset();
+            }
+        }
+        return sum + engine.getStats();
+    }
+
+    private static long runSingle(int gameSpeed, long ticks) {
+        SimulationEngine engine = new SimulationEngine(gameSpeed, 42L, GameClock.SYSTEM);
+        long sum = 0;
+        for (long done = 0; done < ticks; done++) {
+            if (!engine.tick()) {
+                sum += engine.getElapsedTime();
+                engine.reset();
+                engine.tick();
+            }
+        }
+        return sum + engine.getStats();
+    }
+
+    private static long runOld(int gameSpeed, long ticks) {
+        OldPath old = new OldPath(gameSpeed);
+        long sum = 0;
+        for (long done = 0; done < ticks; done++) {
+            old.tick();
+            if (old.isAnyStatCritical()) {
+                sum += old.elapsedTime;
+                old.reset();
+            }
+        }
+        return sum + old.hunger;
+    }
+
+    // Прежний GameViewModel: уровень сложности по минутам, уменьшение раз в interval тиков
+    private static class OldPath {
+        private static final float HUNGER_DECREASE_RATE = 1.2f;
+        private static final float HAPPINESS_DECREASE_RATE = 1.0f;
+        private static final float CLEANLINESS_DECREASE_RATE = 0.8f;
+        private static final float ENERGY_DECREASE_RATE = 0.9f;
+
+        private final int gameSpeed;
+        private int hunger;
+        private int happiness;
+        private int cleanliness;
+        private int energy;
+        private long elapsedTime;
+        private int difficultyLevel;
+        private int decreaseCounter;
+
+        OldPath(int gameSpeed) {
+            this.gameSpeed = gameSpeed;
+            reset();
+        }
+
+        void reset() {
+            hunger = happiness = cleanliness = energy = 100;
+            elapsedTime = 0;
+            difficultyLevel = 1;
+            decreaseCounter = 0;
+        }
+
+        void tick() {
+            elapsedTime += 1000;
+            updateDifficultyLevel(elapsedTime);
+            decreaseStats();
+        }
+
+        private void decreaseStats() {
+            decreaseCounter++;
+            int interval = (gameSpeed == 0) ? 30 : 1;
+
+            if (decreaseCounter >= interval) {
+                decreaseCounter = 0;
+
+                int baseDecrease = difficultyLevel;
+
+                int hungerDecrease = Math.max(1, Math.round(baseDecrease * HUNGER_DECREASE_RATE));
+                int happinessDecrease = Math.max(1, Math.round(baseDecrease * HAPPINESS_DECREASE_RATE));
+                int cleanlinessDecrease = Math.max(1, Math.round(baseDecrease * CLEANLINESS_DECREASE_RATE));
+                int energyDecrease = Math.max(1, Math.round(baseDecrease * ENERGY_DECREASE_RATE));
+
+                if (Math.random() > 0.7) hungerDecrease++;
+                if (Math.random() > 0.7) happinessDecrease++;
+                if (Math.random() > 0.5) cleanlinessDecrease++;
+                if (Math.random() > 0.6) energyDecrease++;
+
+                hunger = clamp(hunger - hungerDecrease);
+                happiness = clamp(happiness - happinessDecrease);
+                cleanliness = clamp(cleanliness - cleanlinessDecrease);
+                energy = clamp(energy - energyDecrease);
+            }
+        }
+
+        private void updateDifficultyLevel(long elapsedTime) {
+            long minutes = elapsedTime / 60000;
+            if (minutes < 1) {
+                difficultyLevel = 1;
+            } else if (minutes < 2) {
+                difficultyLevel = 2;
+            } else if (minutes < 5) {
+                difficultyLevel = 3;
+            } else if (minutes < 10) {
+                difficultyLevel = 4;
+            } else {
+                difficultyLevel = 5;
+            }
+        }
+
+        boolean isAnyStatCritical() {
+            return hunger <= 0 || happiness <= 0 || cleanliness <= 0 || energy <= 0;
+        }
+
+        private static int clamp(int value) {
+            return Math.max(0, Math.min(100, value));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.tamagotchiproject.engine;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StatTimeSeriesTest {
+    private static class Collector implements StatTimeSeries.Visitor {
+        final List<long[]> samples = new ArrayList<>();
+
+        @Override
+        public void onSample(long elapsedSeconds, int stats, int difficultyLevel) {
+            samples.add(new long[]{elapsedSeconds, stats, difficultyLevel});
+        }
+    }
+
+    @Test
+    public void query_returnsChangesInRangeWithStartingState() {
+        StatTimeSeries series = new StatTimeSeries();
+        series.append(0, PackedStats.FULL, 1);
+        series.append(1000, PackedStats.FULL, 1); // без изменений - не пишется
+        series.append(30_000, PackedStats.pack(97, 98, 96, 99), 1);
+        series.append(60_000, PackedStats.pack(94, 96, 92, 98), 2);
+        series.append(61_000, PackedStats.pack(100, 96, 92, 100), 2);
+        assertEquals(4, series.getSampleCount());
+
+        Collector all = new Collector();
+        series.query(0, Long.MAX_VALUE, all);
+        assertEquals(4, all.samples.size());
+        assertEquals(60, all.samples.get(2)[0]);
+        assertEquals(PackedStats.pack(94, 96, 92, 98), all.samples.get(2)[1]);
+        assertEquals(2, all.samples.get(2)[2]);
+        assertEquals(PackedStats.pack(100, 96, 92, 100), all.samples.get(3)[1]);
+
+        // Диапазон внутри: сначала состояние на его начало, потом изменения
+        Collector range = new Collector();
+        series.query(45, 60, range);
+        assertEquals(2, range.samples.size());
+        assertEquals(30, range.samples.get(0)[0]);
+        assertEquals(60, range.samples.get(1)[0]);
+
+        Collector tail = new Collector();
+        series.query(100, 200, tail);
+        assertEquals(1, tail.samples.size());
+        assertEquals(61, tail.samples.get(0)[0]);
+    }
+
+    @Test
+    public void threeHourSession_fitsAndDecodesExactly() {
+        StatTimeSeries series = new StatTimeSeries();
+        SimulationEngine engine = new SimulationEngine(0, 11L);
+        List<long[]> expected = new ArrayList<>();
+        int lastStats = -1;
+        int lastLevel = -1;
+        for (int second = 0; second < 3 * 3600; second++) {
+            if (second % 45 == 0) {
+                engine.apply(GameAction.FEED + second % 4);
+            }
+            if (engine.isAnyStatCritical()) {
+                engine.load(PackedStats.FULL, engine.getElapsedTime());
+            }
+            engine.tick();
+            series.append(engine.getElapsedTime(), engine.getStats(), engine.getDifficultyLevel());
+            if (engine.getStats() != lastStats || engine.getDifficultyLevel() != lastLevel) {
+                lastStats = engine.getStats();
+                lastLevel = engine.getDifficultyLevel();
+                expected.add(new long[]{engine.getElapsedTime() / 1000, lastStats, lastLevel});
+            }
+        }
+
+        assertTrue("used " + series.getUsedBytes(), series.getUsedBytes() < series.getCapacityBytes());
+        Collector all = new Collector();
+        series.query(0, Long.MAX_VALUE, all);
+        assertEquals(expected.size(), all.samples.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), all.samples.get(i));
+        }
+    }
+
+    @Test
+    public void fullRing_dropsOldestBlocks() {
+        StatTimeSeries series = new StatTimeSeries(4, 64);
+        for (int second = 0; second < 10_000; second++) {
+            series.append(second * 1000L, PackedStats.pack(second % 101, 50, 50, 50), 1);
+        }
+        assertTrue(series.getFirstTime() > 9_000);
+        assertEquals(9_999, series.getLastTime());
+
+        Collector recent = new Collector();
+        series.query(series.getFirstTime(), Long.MAX_VALUE, recent);
+        assertEquals(9_999 - series.getFirstTime() + 1, recent.samples.size());
+        assertEquals(PackedStats.pack(9_999 % 101, 50, 50, 50), recent.samples.get(recent.samples.size() - 1)[1]);
+    }
+
+    @Test
+    public void append_allocatesNothing() {
+        StatTimeSeries series = new StatTimeSeries();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        // Прогрев, чтобы JIT не попал в замер
+        for (int i = 0; i < 50_000; i++) {
+            series.append(i * 1000L, PackedStats.pack(i % 101, i % 7, 50, 50), 1 + i % 5);
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 50_000; i++) {
+            series.append(i * 1000L, PackedStats.pack(i % 101, i % 7, 50, 50), 1 + i % 5);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue("allocated " + allocated, allocated < 1024);
+    }
+}
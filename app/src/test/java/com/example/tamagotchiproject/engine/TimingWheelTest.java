@@ -0,0 +1,74 @@
+package com.example.tamagotchiproject.engine;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class TimingWheelTest {
+    private final long[] now = {0};
+    private final TimingWheel wheel = new TimingWheel(50, () -> now[0]);
+
+    @Test
+    public void timeoutsFireOnTheirTick_acrossAllLevels() {
+        SplittableRandom random = new SplittableRandom(4);
+        int count = 2000;
+        long[] deadlines = new long[count];
+        long[] firedAt = new long[count];
+        for (int i = 0; i < count; i++) {
+            final int id = i;
+            // От долей секунды до нескольких часов, чтобы задеть все уровни колеса
+            long delay = random.nextLong(1, 4 * 60 * 60 * 1000L);
+            deadlines[i] = delay;
+            wheel.newTimeout(() -> firedAt[id] = now[0]).schedule(delay);
+        }
+
+        // Ходим по часам так же, как рабочий поток: сразу к следующему моменту работы
+        while (wheel.getScheduledCount() > 0) {
+            now[0] += Math.max(1, wheel.millisUntilNextWork());
+            wheel.advance();
+        }
+
+        for (int i = 0; i < count; i++) {
+            assertTrue("early " + i, firedAt[i] >= deadlines[i]);
+            assertTrue("late " + i, firedAt[i] < deadlines[i] + 50);
+        }
+    }
+
+    @Test
+    public void rescheduleAndCancel_reuseTheSameTimeout() {
+        int[] fired = {0};
+        TimingWheel.Timeout timeout = wheel.newTimeout(() -> fired[0]++);
+
+        timeout.schedule(1000);
+        timeout.schedule(5000);
+        now[0] = 1000;
+        wheel.advance();
+        assertEquals(0, fired[0]);
+
+        now[0] = 5000;
+        wheel.advance();
+        assertEquals(1, fired[0]);
+
+        timeout.schedule(100);
+        timeout.cancel();
+        now[0] = 10_000;
+        wheel.advance();
+        assertEquals(1, fired[0]);
+        assertEquals(0, wheel.getScheduledCount());
+    }
+
+    @Test
+    public void idleWheel_sleepsUntilTheOnlyTimeout() {
+        wheel.newTimeout(() -> { }).schedule(30_000);
+
+        int wakeups = 0;
+        while (wheel.getScheduledCount() > 0) {
+            now[0] += Math.max(1, wheel.millisUntilNextWork());
+            wheel.advance();
+            wakeups++;
+        }
+        assertTrue("wakeups=" + wakeups, wakeups <= 3);
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.tamagotchiproject.repository;
+
+import com.example.tamagotchiproject.engine.GameActor;
+import com.example.tamagotchiproject.engine.GameClock;
+import com.example.tamagotchiproject.engine.PackedStats;
+import com.example.tamagotchiproject.engine.SimulationEngine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GameJournalTest {
+    private File file;
+    private final long[] now = {1_000_000};
+    private final GameClock clock = () -> now[0];
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("game", ".journal");
+        file.delete();
+        file.deleteOnExit();
+    }
+
+    @Test
+    public void records_surviveReopen() throws Exception {
+        GameJournal journal = new GameJournal(file, 64, clock);
+        journal.record(GameActor.Journal.ACTION, 1, PackedStats.pack(90, 80, 70, 60), 5000);
+        now[0] += 1000;
+        journal.record(GameActor.Journal.DECAY, 0, PackedStats.pack(88, 79, 69, 59), 6000);
+        journal.close();
+
+        GameJournal reopened = new GameJournal(file, 64, clock);
+        final List<long[]> records = new ArrayList<>();
+        reopened.replay(new GameJournal.Visitor() {
+            @Override
+            public void onRecord(long timestamp, int type, int detail, int stats, long elapsedTime) {
+                records.add(new long[]{timestamp, type, detail, stats, elapsedTime});
+            }
+        });
+
+        assertEquals(2, records.size());
+        assertArrayEquals(new long[]{1_000_000, GameActor.Journal.ACTION, 1, PackedStats.pack(90, 80, 70, 60), 5000},
+                records.get(0));
+        assertArrayEquals(new long[]{1_001_000, GameActor.Journal.DECAY, 0, PackedStats.pack(88, 79, 69, 59), 6000},
+                records.get(1));
+        reopened.close();
+    }
+
+    @Test
+    public void checkpoint_dropsRecordsOnlyAfterItIsSaved() throws Exception {
+        GameJournal journal = new GameJournal(file, 8, clock);
+        final long[] checkpoint = new long[3];
+        final GameJournal.Completion[] onSaved = new GameJournal.Completion[1];
+        journal.setCheckpointer(new GameJournal.Checkpointer() {
+            @Override
+            public void checkpoint(int stats, long elapsedTime, long timestamp, GameJournal.Completion done) {
+                checkpoint[0] = stats;
+                checkpoint[1] = elapsedTime;
+                checkpoint[2] = timestamp;
+                onSaved[0] = done;
+            }
+        });
+
+        // Шестая запись из восьми запускает сохранение
+        for (int i = 0; i < 6; i++) {
+            now[0] += 1000;
+            journal.record(GameActor.Journal.DECAY, 0, PackedStats.pack(100 - i, 100, 100, 100), i * 1000L);
+        }
+        assertEquals(PackedStats.pack(95, 100, 100, 100), checkpoint[0]);
+        assertEquals(5000, checkpoint[1]);
+        assertEquals(now[0], checkpoint[2]);
+
+        // Пока снимок пишется, журнал цел и принимает новые записи
+        now[0] += 1000;
+        journal.record(GameActor.Journal.ACTION, 2, PackedStats.FULL, 6000);
+        assertEquals(7, journal.size());
+
+        onSaved[0].onComplete(true);
+        assertEquals(1, journal.size());
+        journal.close();
+
+        GameJournal reopened = new GameJournal(file, 8, clock);
+        final List<long[]> records = new ArrayList<>();
+        reopened.replay(new GameJournal.Visitor() {
+            @Override
+            public void onRecord(long timestamp, int type, int detail, int stats, long elapsedTime) {
+                records.add(new long[]{timestamp, type, detail, stats, elapsedTime});
+            }
+        });
+        assertEquals(1, records.size());
+        assertArrayEquals(new long[]{now[0], GameActor.Journal.ACTION, 2, PackedStats.FULL, 6000}, records.get(0));
+        reopened.close();
+    }
+
+    @Test
+    public void failedCheckpoint_isRetriedOnNextAppend() throws Exception {
+        GameJournal journal = new GameJournal(file, 8, clock);
+        final List<GameJournal.Completion> requests = new ArrayList<>();
+        journal.setCheckpointer(new GameJournal.Checkpointer() {
+            @Override
+            public void checkpoint(int stats, long elapsedTime, long timestamp, GameJournal.Completion done) {
+                requests.add(done);
+            }
+        });
+
+        for (int i = 0; i < 6; i++) {
+            journal.record(GameActor.Journal.DECAY, 0, PackedStats.FULL, i * 1000L);
+        }
+        assertEquals(1, requests.size());
+        requests.get(0).onComplete(false);
+        assertEquals(6, journal.size());
+
+        journal.record(GameActor.Journal.ACTION, 1, PackedStats.FULL, 6000);
+        assertEquals(2, requests.size());
+        requests.get(1).onComplete(true);
+        assertEquals(0, journal.size());
+        journal.close();
+    }
+
+    @Test
+    public void fullJournal_whileSaving_keepsLatestRecord() throws Exception {
+        GameJournal journal = new GameJournal(file, 8, clock);
+        journal.setCheckpointer(new GameJournal.Checkpointer() {
+            @Override
+            public void checkpoint(int stats, long elapsedTime, long timestamp, GameJournal.Completion done) {
+                // Запись на диск не завершается
+            }
+        });
+
+        for (int i = 0; i < 12; i++) {
+            now[0] += 1000;
+            journal.record(GameActor.Journal.DECAY, 0, PackedStats.pack(100 - i, 100, 100, 100), i * 1000L);
+        }
+
+        assertEquals(8, journal.size());
+        final int[] last = new int[1];
+        journal.replay(new GameJournal.Visitor() {
+            @Override
+            public void onRecord(long timestamp, int type, int detail, int stats, long elapsedTime) {
+                last[0] = stats;
+            }
+        });
+        assertEquals(PackedStats.pack(89, 100, 100, 100), last[0]);
+        journal.close();
+    }
+
+    @Test
+    public void lateConfirmation_afterTruncate_keepsNewRecords() throws Exception {
+        GameJournal journal = new GameJournal(file, 8, clock);
+        final GameJournal.Completion[] onSaved = new GameJournal.Completion[1];
+        journal.setCheckpointer(new GameJournal.Checkpointer() {
+            @Override
+            public void checkpoint(int stats, long elapsedTime, long timestamp, GameJournal.Completion done) {
+                onSaved[0] = done;
+            }
+        });
+
+        for (int i = 0; i < 6; i++) {
+            journal.record(GameActor.Journal.DECAY, 0, PackedStats.FULL, i * 1000L);
+        }
+        journal.truncate();
+        journal.record(GameActor.Journal.ACTION, 1, PackedStats.FULL, 7000);
+
+        onSaved[0].onComplete(true);
+        assertEquals(1, journal.size());
+        journal.close();
+    }
+
+    @Test
+    public void truncateWhenSaved_keepsRecordsUntilStoreIsWritten() throws Exception {
+        GameJournal journal = new GameJournal(file, 64, clock);
+        for (int i = 0; i < 5; i++) {
+            journal.record(GameActor.Journal.DECAY, 0, PackedStats.pack(50, 50, 50, 50), i * 1000L);
+        }
+        GameJournal.Completion truncate = journal.truncateWhenSaved();
+        now[0] += 1000;
+        journal.record(GameActor.Journal.RESET, 0, PackedStats.FULL, 0);
+
+        // Сохранение ещё не на диске: старые записи на месте
+        assertEquals(6, journal.size());
+        truncate.onComplete(false);
+        assertEquals(6, journal.size());
+
+        GameJournal.Completion retry = journal.truncateWhenSaved();
+        journal.record(GameActor.Journal.ACTION, 1, PackedStats.FULL, 1000);
+        retry.onComplete(true);
+        assertEquals(1, journal.size());
+        final int[] types = new int[1];
+        journal.replay(new GameJournal.Visitor() {
+            @Override
+            public void onRecord(long timestamp, int type, int detail, int stats, long elapsedTime) {
+                types[0] = type;
+            }
+        });
+        assertEquals(GameActor.Journal.ACTION, types[0]);
+        journal.close();
+    }
+
+    @Test
+    public void actorWritesEveryChange() throws Exception {
+        GameJournal journal = new GameJournal(file, 64, clock);
+        SimulationEngine engine = new SimulationEngine(1, 1L, clock);
+        GameActor actor = new GameActor(engine);
+        actor.setJournal(journal);
+
+        actor.feed();
+        now[0] += 3 * SimulationEngine.TICK_MILLIS;
+        actor.tick();
+
+        assertEquals(2, journal.size());
+        final int[] last = new int[1];
+        journal.replay(new GameJournal.Visitor() {
+            @Override
+            public void onRecord(long timestamp, int type, int detail, int stats, long elapsedTime) {
+                last[0] = stats;
+            }
+        });
+        assertEquals(actor.snapshot().getStats(), last[0]);
+        journal.close();
+    }
+
+    @Test
+    public void append_allocatesNothing() throws Exception {
+        GameJournal journal = new GameJournal(file, 1 << 16, clock);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        // Прогрев, чтобы JIT не попал в замер
+        for (int i = 0; i < 20_000; i++) {
+            journal.record(GameActor.Journal.DECAY, 0, i, i);
+        }
+        journal.truncate();
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 50_000; i++) {
+            journal.record(GameActor.Journal.DECAY, 0, i, i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue("allocated " + allocated, allocated < 1024);
+        journal.close();
+    }
+}
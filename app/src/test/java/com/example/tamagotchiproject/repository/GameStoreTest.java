@@ -0,0 +1,126 @@
+package com.example.tamagotchiproject.repository;
+
+import com.example.tamagotchiproject.engine.PackedStats;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+public class GameStoreTest {
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("game", ".store");
+        file.delete();
+        file.deleteOnExit();
+    }
+
+    @Test
+    public void saveAndLoad_roundTripsEveryField() throws Exception {
+        GameStore store = new GameStore(file, GameStore.SYNC_DATA);
+        store.setStats(PackedStats.pack(10, 20, 30, 40));
+        store.setGameSpeed(1);
+        store.setCharacter(3);
+        store.setPetName("Лягушонок");
+        store.setElapsedTime(123_000);
+        store.setSavedAt(1_700_000_000_000L);
+        store.setRngSeed(-42);
+        store.setBestTime(0, 600_000);
+        store.setBestTime(1, 90_000);
+        store.setGameOver(true);
+        store.save();
+
+        GameStore loaded = new GameStore(file, GameStore.SYNC_DATA);
+        assertTrue(loaded.load());
+        assertEquals(PackedStats.pack(10, 20, 30, 40), loaded.getStats());
+        assertEquals(1, loaded.getGameSpeed());
+        assertEquals(3, loaded.getCharacter());
+        assertEquals("Лягушонок", loaded.getPetName());
+        assertEquals(123_000, loaded.getElapsedTime());
+        assertTrue(loaded.hasSavedState());
+        assertEquals(1_700_000_000_000L, loaded.getSavedAt());
+        assertTrue(loaded.hasRngSeed());
+        assertEquals(-42, loaded.getRngSeed());
+        assertEquals(600_000, loaded.getBestTime(0));
+        assertEquals(90_000, loaded.getBestTime(1));
+        assertTrue(loaded.isGameOver());
+        assertEquals(GameStore.FILE_BYTES, file.length());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void corruptedPayload_isRejectedByChecksum() throws Exception {
+        GameStore store = new GameStore(file, GameStore.SYNC_NONE);
+        store.setElapsedTime(5000);
+        store.save();
+
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(30);
+            raw.write(0x7F);
+        }
+
+        GameStore loaded = new GameStore(file, GameStore.SYNC_NONE);
+        assertFalse(loaded.load());
+        assertEquals(0, loaded.getElapsedTime());
+    }
+
+    @Test
+    public void longName_isCutOnCharacterBoundary() throws Exception {
+        GameStore store = new GameStore(file, GameStore.SYNC_NONE);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            name.append('Ж');
+        }
+        store.setPetName(name.toString());
+        store.save();
+
+        GameStore loaded = new GameStore(file, GameStore.SYNC_NONE);
+        assertTrue(loaded.load());
+        assertEquals(name.substring(0, 32), loaded.getPetName());
+    }
+
+    @Test
+    public void nameBytes_matchesUtf8Encoding() throws Exception {
+        String[] names = {"", "Пушок", "Rex", "猫の名前", "Кот \uD83D\uDC31"};
+        for (String name : names) {
+            assertEquals(name, name.getBytes("UTF-8").length, GameStore.nameBytes(name));
+        }
+    }
+
+    @Test
+    public void nameOfExactlyNameBytes_isStoredWhole() throws Exception {
+        StringBuilder name = new StringBuilder();
+        while (GameStore.nameBytes(name) + 2 <= GameStore.NAME_BYTES) {
+            name.append('Ж');
+        }
+        assertEquals(GameStore.NAME_BYTES, GameStore.nameBytes(name));
+
+        GameStore store = new GameStore(file, GameStore.SYNC_NONE);
+        store.setPetName(name.toString());
+        store.save();
+
+        GameStore loaded = new GameStore(file, GameStore.SYNC_NONE);
+        assertTrue(loaded.load());
+        assertEquals(name.toString(), loaded.getPetName());
+    }
+
+    @Test
+    public void clearGame_keepsSettingsAndRecords() throws Exception {
+        GameStore store = new GameStore(file, GameStore.SYNC_NONE);
+        store.setPetName("Панда");
+        store.setBestTime(0, 1000);
+        store.setSavedAt(77);
+        store.setStats(PackedStats.pack(1, 2, 3, 4));
+        store.clearGame();
+
+        assertFalse(store.hasSavedState());
+        assertEquals(PackedStats.FULL, store.getStats());
+        assertEquals("Панда", store.getPetName());
+        assertEquals(1000, store.getBestTime(0));
+    }
+}
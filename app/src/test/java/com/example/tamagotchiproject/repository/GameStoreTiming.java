@@ -0,0 +1,52 @@
+package com.example.tamagotchiproject.repository;
+
+import com.example.tamagotchiproject.engine.PackedStats;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Задержка save/load GameStore на JVM для каждой политики fsync; в приложение не попадает.
+// Сравнение с SharedPreferences снимается на устройстве (GameStoreBenchmark в androidTest).
+// Аргументы: [каталог для файла] [число повторов]
+public class GameStoreTiming {
+    public static void main(String[] args) throws IOException {
+        File dir = new File(args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir"));
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        String[] names = {"SYNC_NONE", "SYNC_DATA", "SYNC_DATA_AND_DIR"};
+
+        for (int policy = GameStore.SYNC_NONE; policy <= GameStore.SYNC_DATA_AND_DIR; policy++) {
+            File file = new File(dir, "timing-" + policy + ".store");
+            GameStore store = new GameStore(file, policy);
+            store.setPetName("Пушок");
+            store.setCharacter(2);
+            long[] saves = new long[rounds];
+            long[] loads = new long[rounds];
+            // Прогрев JIT и страничного кэша
+            for (int i = 0; i < 200; i++) {
+                store.setStats(PackedStats.pack(i & 0x7F, 50, 50, 50));
+                store.save();
+                new GameStore(file, policy).load();
+            }
+            for (int i = 0; i < rounds; i++) {
+                store.setStats(PackedStats.pack(i & 0x7F, 50, 50, 50));
+                store.setElapsedTime(i * 1000L);
+                long started = System.nanoTime();
+                store.save();
+                saves[i] = System.nanoTime() - started;
+
+                started = System.nanoTime();
+                new GameStore(file, policy).load();
+                loads[i] = System.nanoTime() - started;
+            }
+            file.delete();
+            System.out.println(names[policy] + ": save " + percentiles(saves) + "; load " + percentiles(loads));
+        }
+    }
+
+    private static String percentiles(long[] nanos) {
+        Arrays.sort(nanos);
+        return String.format("p50=%.1f мкс, p95=%.1f мкс",
+                nanos[nanos.length / 2] / 1e3, nanos[nanos.length * 95 / 100] / 1e3);
+    }
+}
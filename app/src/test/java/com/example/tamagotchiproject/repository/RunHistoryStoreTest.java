@@ -0,0 +1,173 @@
+package com.example.tamagotchiproject.repository;
+
+import com.example.tamagotchiproject.engine.GameAction;
+import com.example.tamagotchiproject.engine.PackedStats;
+import com.example.tamagotchiproject.model.RunRecord;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RunHistoryStoreTest {
+    private File file;
+    private File indexFile;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("runs", ".dat");
+        indexFile = new File(file.getPath() + ".idx");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        indexFile.delete();
+    }
+
+    private static RunRecord run(long duration, int character, int gameSpeed) {
+        return new RunRecord(1_700_000_000_000L + duration, duration, "Питомец " + duration, character, gameSpeed,
+                RunRecord.CAUSE_HUNGER, new int[]{0, 3, 2, 1, 4});
+    }
+
+    @Test
+    public void append_roundTripsEveryField() throws Exception {
+        try (RunHistoryStore store = new RunHistoryStore(file, indexFile)) {
+            int stats = PackedStats.pack(0, 50, 0, 10);
+            RunRecord written = new RunRecord(123L, 456_000L, "Лягушонок", 3, 1,
+                    RunRecord.causeOf(stats), new int[]{0, 7, 8, 9, 10});
+            assertEquals(0, store.append(written));
+
+            RunRecord read = store.get(0);
+            assertEquals(123L, read.getFinishedAt());
+            assertEquals(456_000L, read.getDuration());
+            assertEquals("Лягушонок", read.getPetName());
+            assertEquals(3, read.getCharacter());
+            assertEquals(1, read.getGameSpeed());
+            assertEquals(RunRecord.CAUSE_HUNGER | RunRecord.CAUSE_CLEANLINESS, read.getCause());
+            assertEquals(7, read.getActionCount(GameAction.FEED));
+            assertEquals(10, read.getActionCount(GameAction.REST));
+        }
+    }
+
+    @Test
+    public void topAndRank_arePerModeAndCharacter() throws Exception {
+        try (RunHistoryStore store = new RunHistoryStore(file, indexFile)) {
+            store.append(run(30_000, 1, 0));
+            store.append(run(90_000, 2, 0));
+            store.append(run(60_000, 1, 0));
+            store.append(run(120_000, 1, 1));
+            store.append(run(60_000, 3, 0));
+
+            List<RunRecord> top = store.top(0, RunHistoryStore.ALL_CHARACTERS, 0, 3);
+            assertEquals(3, top.size());
+            assertEquals(90_000, top.get(0).getDuration());
+            assertEquals(60_000, top.get(1).getDuration());
+            // При равной длительности выше более ранний забег
+            assertEquals(1, top.get(1).getCharacter());
+            assertEquals(60_000, top.get(2).getDuration());
+
+            List<RunRecord> pandas = store.top(0, 1, 0, 10);
+            assertEquals(2, pandas.size());
+            assertEquals(60_000, pandas.get(0).getDuration());
+
+            assertEquals(1, store.rank(0, RunHistoryStore.ALL_CHARACTERS, 100_000));
+            assertEquals(2, store.rank(0, RunHistoryStore.ALL_CHARACTERS, 60_000));
+            assertEquals(4, store.rank(0, RunHistoryStore.ALL_CHARACTERS, 60_000 - 1));
+            assertEquals(1, store.rank(1, 1, 120_000));
+            assertEquals(1, store.count(1, RunHistoryStore.ALL_CHARACTERS));
+        }
+    }
+
+    @Test
+    public void history_isPagedNewestFirst() throws Exception {
+        try (RunHistoryStore store = new RunHistoryStore(file, indexFile)) {
+            for (int i = 1; i <= 25; i++) {
+                store.append(run(i * 1000L, 1, 0));
+            }
+            List<RunRecord> first = store.history(0, 10);
+            assertEquals(10, first.size());
+            assertEquals(25_000, first.get(0).getDuration());
+            List<RunRecord> last = store.history(2, 10);
+            assertEquals(5, last.size());
+            assertEquals(1_000, last.get(4).getDuration());
+            assertTrue(store.history(3, 10).isEmpty());
+        }
+    }
+
+    @Test
+    public void reopen_usesSavedIndexAndIndexesTail() throws Exception {
+        int runs = RunHistoryStore.INDEX_SAVE_EVERY + 10;
+        RunHistoryStore store = new RunHistoryStore(file, indexFile);
+        for (int i = 0; i < runs; i++) {
+            store.append(run(i * 1000L, 1 + i % 3, i % 2));
+        }
+        // Без close(): на диске индекс покрывает только первые INDEX_SAVE_EVERY забегов
+        assertTrue(indexFile.exists());
+
+        try (RunHistoryStore reopened = new RunHistoryStore(file, indexFile)) {
+            assertEquals(runs, reopened.size());
+            assertEquals((runs - 1) * 1000L, reopened.top(1, RunHistoryStore.ALL_CHARACTERS, 0, 1).get(0).getDuration());
+            assertEquals(runs / 2, reopened.count(0, RunHistoryStore.ALL_CHARACTERS));
+        }
+
+        indexFile.delete();
+        try (RunHistoryStore rebuilt = new RunHistoryStore(file, indexFile)) {
+            assertEquals(runs / 2, rebuilt.count(1, RunHistoryStore.ALL_CHARACTERS));
+            assertEquals(1, rebuilt.rank(1, RunHistoryStore.ALL_CHARACTERS, runs * 1000L));
+        }
+    }
+
+    @Test
+    public void tornTail_isDropped() throws Exception {
+        try (RunHistoryStore store = new RunHistoryStore(file, indexFile)) {
+            store.append(run(1000, 1, 0));
+            store.append(run(2000, 1, 0));
+        }
+        // Последняя запись недописана: портим её середину и добавляем обрывок
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(raw.length() - 50);
+            raw.write(0x7F);
+            raw.seek(raw.length());
+            raw.write(new byte[17]);
+        }
+        try (RunHistoryStore store = new RunHistoryStore(file, indexFile)) {
+            assertEquals(1, store.size());
+            assertEquals(1, store.count(0, RunHistoryStore.ALL_CHARACTERS));
+            assertEquals(1000, store.get(0).getDuration());
+        }
+    }
+
+    @Test
+    public void hundredThousandRuns_rankMatchesLinearScan() throws Exception {
+        int runs = 100_000;
+        Random random = new Random(7);
+        long[] durations = new long[runs];
+        try (RunHistoryStore store = new RunHistoryStore(file, indexFile)) {
+            for (int i = 0; i < runs; i++) {
+                durations[i] = random.nextInt(3_600_000);
+                store.append(run(durations[i], 1 + random.nextInt(3), 0));
+            }
+        }
+        try (RunHistoryStore store = new RunHistoryStore(file, indexFile)) {
+            long probe = 1_800_000;
+            int longer = 0;
+            for (long duration : durations) {
+                if (duration > probe) longer++;
+            }
+            assertEquals(longer + 1, store.rank(0, RunHistoryStore.ALL_CHARACTERS, probe));
+
+            List<RunRecord> top = store.top(0, RunHistoryStore.ALL_CHARACTERS, 0, 10);
+            for (int i = 1; i < top.size(); i++) {
+                assertTrue(top.get(i - 1).getDuration() >= top.get(i).getDuration());
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.tamagotchiproject.repository;
+
+import com.example.tamagotchiproject.engine.PackedStats;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class WriteBehindStoreTest {
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("game", ".store");
+        file.delete();
+        file.deleteOnExit();
+    }
+
+    @Test
+    public void dirtyMask_tracksOnlyRealChanges() throws Exception {
+        GameStore store = new GameStore(file, GameStore.SYNC_NONE);
+        assertFalse(store.isDirty());
+
+        store.setStats(PackedStats.FULL);
+        store.setCharacter(1);
+        assertEquals(0, store.getDirtyMask());
+
+        store.setStats(PackedStats.pack(50, 100, 100, 100));
+        store.setBestTime(1, 1000);
+        assertEquals(GameStore.DIRTY_STATS | GameStore.DIRTY_BEST_TIMES, store.getDirtyMask());
+
+        assertTrue(store.saveIfDirty());
+        assertEquals(0, store.getDirtyMask());
+        assertFalse(store.saveIfDirty());
+    }
+
+    @Test
+    public void burstOfSaves_isWrittenOnce() throws Exception {
+        GameStore store = new GameStore(file, GameStore.SYNC_NONE);
+        WriteBehindStore writer = new WriteBehindStore(store, 100);
+
+        for (int i = 1; i <= 200; i++) {
+            store.setElapsedTime(i * 1000L);
+            writer.requestFlush();
+        }
+        Thread.sleep(300);
+        assertEquals(1, writer.getWriteCount());
+
+        GameStore loaded = new GameStore(file, GameStore.SYNC_NONE);
+        assertTrue(loaded.load());
+        assertEquals(200_000, loaded.getElapsedTime());
+    }
+
+    @Test
+    public void unchangedStore_isNotWritten() throws Exception {
+        GameStore store = new GameStore(file, GameStore.SYNC_NONE);
+        WriteBehindStore writer = new WriteBehindStore(store, 10);
+        store.setPetName("Панда");
+        writer.flushAndWait();
+        assertEquals(1, writer.getWriteCount());
+
+        store.setPetName("Панда");
+        writer.requestFlush();
+        writer.flushAndWait();
+        Thread.sleep(50);
+        assertEquals(1, writer.getWriteCount());
+    }
+
+    @Test
+    public void flushNow_doesNotWaitForDelay() throws Exception {
+        GameStore store = new GameStore(file, GameStore.SYNC_NONE);
+        WriteBehindStore writer = new WriteBehindStore(store, 60_000);
+        store.setGameOver(true);
+        writer.requestFlush();
+        writer.flushAndWait();
+
+        assertEquals(1, writer.getWriteCount());
+        GameStore loaded = new GameStore(file, GameStore.SYNC_NONE);
+        assertTrue(loaded.load());
+        assertTrue(loaded.isGameOver());
+    }
+}
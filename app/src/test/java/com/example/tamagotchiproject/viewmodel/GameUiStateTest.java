@@ -0,0 +1,89 @@
+package com.example.tamagotchiproject.viewmodel;
+
+import com.example.tamagotchiproject.engine.PackedStats;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GameUiStateTest {
+
+    @Test
+    public void firstState_changesEverything() {
+        GameUiState state = GameUiState.reduce(null, PackedStats.FULL, 0, false, 1);
+        assertEquals(GameUiState.CHANGED_ALL, state.changesSince(null));
+        assertEquals("00:00:00", state.getTimerText());
+        assertEquals(GameUiState.MOOD_NORMAL, state.getMood());
+        assertEquals(GameUiState.BACKGROUND_NORMAL, state.getBackground());
+    }
+
+    @Test
+    public void sameScreen_returnsPreviousObject() {
+        GameUiState state = GameUiState.reduce(null, PackedStats.FULL, 1_200, false, 1);
+        // В пределах той же секунды на экране ничего не меняется
+        assertSame(state, GameUiState.reduce(state, PackedStats.FULL, 1_900, false, 1));
+        assertEquals(0, state.changesSince(state));
+    }
+
+    @Test
+    public void tick_changesOnlyTimer() {
+        GameUiState before = GameUiState.reduce(null, PackedStats.FULL, 59_999, false, 1);
+        GameUiState after = GameUiState.reduce(before, PackedStats.FULL, 60_000, false, 1);
+        assertEquals(GameUiState.CHANGED_TIMER, after.changesSince(before));
+        assertEquals("00:01:00", after.getTimerText());
+    }
+
+    @Test
+    public void oneBarDrop_changesOnlyThatBar() {
+        GameUiState before = GameUiState.reduce(null, PackedStats.pack(80, 80, 80, 80), 5_000, false, 1);
+        GameUiState after = GameUiState.reduce(before, PackedStats.pack(80, 79, 80, 80), 5_000, false, 1);
+        assertEquals(GameUiState.CHANGED_HAPPINESS, after.changesSince(before));
+        // Текст таймера переиспользуется, а не форматируется заново
+        assertSame(before.getTimerText(), after.getTimerText());
+    }
+
+    @Test
+    public void lowStat_changesMoodAndBackground() {
+        GameUiState before = GameUiState.reduce(null, PackedStats.pack(40, 80, 80, 80), 0, false, 1);
+        GameUiState after = GameUiState.reduce(before, PackedStats.pack(39, 80, 80, 80), 0, false, 1);
+        assertEquals(GameUiState.CHANGED_HUNGER | GameUiState.CHANGED_MOOD | GameUiState.CHANGED_BACKGROUND,
+                after.changesSince(before));
+        assertEquals(GameUiState.MOOD_SAD, after.getMood());
+        assertEquals(GameUiState.BACKGROUND_HUNGRY, after.getBackground());
+    }
+
+    @Test
+    public void background_followsStatPriority() {
+        assertEquals(GameUiState.BACKGROUND_TIRED, GameUiState.backgroundOf(PackedStats.pack(10, 10, 10, 10)));
+        assertEquals(GameUiState.BACKGROUND_HUNGRY, GameUiState.backgroundOf(PackedStats.pack(10, 10, 10, 50)));
+        assertEquals(GameUiState.BACKGROUND_DIRTY, GameUiState.backgroundOf(PackedStats.pack(50, 10, 10, 50)));
+        assertEquals(GameUiState.BACKGROUND_BORED, GameUiState.backgroundOf(PackedStats.pack(50, 10, 50, 50)));
+        assertEquals(GameUiState.BACKGROUND_NORMAL, GameUiState.backgroundOf(PackedStats.pack(50, 50, 50, 50)));
+    }
+
+    @Test
+    public void pauseAndDifficulty_haveOwnFlags() {
+        GameUiState state = GameUiState.reduce(null, PackedStats.FULL, 0, false, 1);
+        GameUiState paused = GameUiState.reduce(state, PackedStats.FULL, 0, true, 1);
+        assertEquals(GameUiState.CHANGED_PAUSED, paused.changesSince(state));
+        GameUiState harder = GameUiState.reduce(paused, PackedStats.FULL, 0, true, 2);
+        assertEquals(GameUiState.CHANGED_DIFFICULTY, harder.changesSince(paused));
+    }
+
+    @Test
+    public void skippedStates_stillReported() {
+        // Экран мог пропустить промежуточные состояния: сравнение идёт с показанным, а не с предыдущим
+        GameUiState shown = GameUiState.reduce(null, PackedStats.pack(80, 80, 80, 80), 0, false, 1);
+        GameUiState skipped = GameUiState.reduce(shown, PackedStats.pack(70, 80, 80, 80), 0, false, 1);
+        GameUiState latest = GameUiState.reduce(skipped, PackedStats.pack(70, 80, 80, 80), 1_000, false, 1);
+        assertEquals(GameUiState.CHANGED_HUNGER | GameUiState.CHANGED_TIMER, latest.changesSince(shown));
+    }
+
+    @Test
+    public void formatTime_matchesOldFormat() {
+        for (long seconds : new long[]{0, 9, 61, 3_599, 3_600, 86_399, 360_000}) {
+            assertEquals(String.format("%02d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60),
+                    GameUiState.formatTime(seconds));
+        }
+    }
+}